@@ -0,0 +1,103 @@
+/**
+ * AddressableHeap
+ *
+ * The public operations of Heap, so that callers can switch between heap
+ * engines without other changes. Items are Heap.HeapItem handles: insert returns
+ * the handle, which stays valid (and keeps its key and info) until the item
+ * is deleted, and decreaseKey and delete take it back. While the item is in
+ * a heap its node is not null; engines without a node per item give it a
+ * shared one. Its tag belongs to the caller and is never read by an engine.
+ *
+ * H is the implementing class itself, the only kind of heap it can meld with.
+ *
+ */
+public interface AddressableHeap<H extends AddressableHeap<H>>
+{
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    Heap.HeapItem insert(int key, String info);
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    Heap.HeapItem findMin();
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    void deleteMin();
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     *
+     */
+    void decreaseKey(Heap.HeapItem x, int diff);
+
+    /**
+     *
+     * Delete x from the heap.
+     *
+     */
+    void delete(Heap.HeapItem x);
+
+    /**
+     *
+     * Meld the heap with heap2.
+     *
+     */
+    void meld(H heap2);
+
+    /**
+     *
+     * Return the number of elements in the heap.
+     *
+     */
+    int size();
+
+    /**
+     *
+     * Return the number of trees in the heap.
+     *
+     */
+    int numTrees();
+
+    /**
+     *
+     * Return the number of marked nodes in the heap.
+     *
+     */
+    int numMarkedNodes();
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    int totalLinks();
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    int totalCuts();
+
+    /**
+     *
+     * Return the total heapify costs.
+     *
+     */
+    int totalHeapifyCosts();
+}
@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestGraph {
+
+    /**
+     * Shortest distances by Bellman-Ford, for checking Dijkstra.
+     */
+    static int[] bellmanFord(Graph g, int source) {
+        long[] dist = new long[g.n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[source] = 0;
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int v = 0; v < g.n; v++) {
+                if (dist[v] == Long.MAX_VALUE) {
+                    continue;
+                }
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    if (dist[v] + g.weights[e] < dist[g.targets[e]]) {
+                        dist[g.targets[e]] = dist[v] + g.weights[e];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        int[] result = new int[g.n];
+        for (int v = 0; v < g.n; v++) {
+            result[v] = dist[v] == Long.MAX_VALUE ? GraphSearch.UNREACHABLE : (int) dist[v];
+        }
+        return result;
+    }
+
+    /**
+     * Weight of a minimum spanning forest by Kruskal, for checking Prim.
+     */
+    static long kruskal(Graph g) {
+        Integer[] order = new Integer[g.numEdges()];
+        int[] from = new int[g.numEdges()];
+        for (int v = 0; v < g.n; v++) {
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                order[e] = e;
+                from[e] = v;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(g.weights[a], g.weights[b]));
+        int[] root = new int[g.n];
+        for (int v = 0; v < g.n; v++) {
+            root[v] = v;
+        }
+        long total = 0;
+        for (int e : order) {
+            int a = from[e], b = g.targets[e];
+            while (root[a] != a) a = root[a] = root[root[a]];
+            while (root[b] != b) b = root[b] = root[root[b]];
+            if (a != b) {
+                root[a] = b;
+                total += g.weights[e];
+            }
+        }
+        return total;
+    }
+
+    static Graph randomGraph(Random random, int n, int m, boolean undirected) {
+        int[] from = new int[m], to = new int[m], weight = new int[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+            weight[i] = random.nextInt(100);
+        }
+        return Graph.fromEdges(n, from, to, weight, m, undirected);
+    }
+
+    @Test
+    void testFromEdges() {
+        Graph g = Graph.fromEdges(3, new int[] {0, 2, 0}, new int[] {1, 0, 2}, new int[] {5, 6, 7}, 3, false);
+        assertArrayEquals(new int[] {0, 2, 2, 3}, g.offsets);
+        assertArrayEquals(new int[] {1, 2, 0}, g.targets);
+        assertArrayEquals(new int[] {5, 7, 6}, g.weights);
+        Graph u = Graph.fromEdges(3, new int[] {0, 2, 0}, new int[] {1, 0, 2}, new int[] {5, 6, 7}, 3, true);
+        assertEquals(6, u.numEdges());
+        assertThrows(IllegalArgumentException.class,
+                () -> Graph.fromEdges(2, new int[] {0}, new int[] {2}, new int[] {1}, 1, false));
+    }
+
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws IOException {
+        Graph g = Graph.powerLaw(20000, 3, 4);
+        Path file = dir.resolve("graph.bin");
+        g.save(file);
+        Graph h = Graph.load(file, false);
+        assertEquals(g.n, h.n);
+        assertArrayEquals(g.offsets, h.offsets);
+        assertArrayEquals(g.targets, h.targets);
+        assertArrayEquals(g.weights, h.weights);
+    }
+
+    @Test
+    void testDijkstra() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            Graph g = randomGraph(random, 200, 1 + random.nextInt(1000), round % 2 == 0);
+            int[] expected = bellmanFord(g, 0);
+            for (boolean[] c : TestHeapLong.CONFIGS) {
+                assertArrayEquals(expected, GraphSearch.dijkstra(g, 0, () -> new Heap(c[0], c[1])));
+            }
+            assertArrayEquals(expected, GraphSearch.dijkstra(g, 0, HeapPairing::new));
+            assertArrayEquals(expected, GraphSearch.dijkstra(g, 0, () -> new HeapDary(4)));
+            assertArrayEquals(expected, GraphSearch.dijkstra(g, 0, HeapRadix::new));
+        }
+        Graph road = Graph.roadNetwork(60, 40, 6);
+        assertArrayEquals(bellmanFord(road, 0), GraphSearch.dijkstra(road, 0, () -> new Heap(true, true)));
+    }
+
+    @Test
+    void testPrim() {
+        Random random = new Random(6);
+        for (int round = 0; round < 20; round++) {
+            Graph g = randomGraph(random, 200, 1 + random.nextInt(1000), true);
+            long expected = kruskal(g);
+            for (boolean[] c : TestHeapLong.CONFIGS) {
+                int[] parent = GraphSearch.prim(g, () -> new Heap(c[0], c[1]));
+                assertEquals(expected, GraphSearch.forestWeight(g, parent));
+            }
+            assertEquals(expected, GraphSearch.forestWeight(g, GraphSearch.prim(g, HeapHollow::new)));
+        }
+        Graph power = Graph.powerLaw(3000, 2, 7);
+        assertEquals(kruskal(power), GraphSearch.forestWeight(power, GraphSearch.prim(power, () -> new Heap(false, true))));
+    }
+}
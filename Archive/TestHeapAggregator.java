@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestHeapAggregator {
+
+    @Test
+    void testSequential() {
+        HeapAggregator queue = new HeapAggregator(false);
+        assertNull(queue.deleteMin());
+        Heap.HeapItem a = queue.insert(10, "a");
+        Heap.HeapItem b = queue.insert(20, "b");
+        queue.insert(30, "c");
+        assertEquals(0, queue.size());
+        assertEquals(3, queue.absorb());
+        assertEquals(0, queue.absorb());
+        queue.decreaseKey(b, 15);
+        assertSame(b, queue.findMin());
+        queue.delete(a);
+        assertEquals(2, queue.size());
+        List<Heap.HeapItem> out = new ArrayList<>();
+        assertEquals(2, queue.drainTo(out, 10));
+        assertSame(b, out.get(0));
+        assertEquals("c", out.get(1).info);
+        assertNull(queue.findMin());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(-1, null));
+    }
+
+    @Test
+    void testProducersAndConsumer() throws InterruptedException {
+        int threads = 8, perThread = 20000;
+        HeapAggregator queue = new HeapAggregator(true);
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = 1000 + t * perThread;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queue.insert(base + i, null);
+                }
+            });
+            producers[t].start();
+        }
+        // meanwhile the keys below 1000 inserted here must come out first:
+        // the consumer's minimum is exact, whatever the producers are doing
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            queue.insert(i, null);
+            assertEquals(i, queue.deleteMin().key);
+            keys.add(i);
+            Heap.HeapItem item = queue.deleteMin();
+            if (item != null) {
+                keys.add(item.key);
+            }
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        int last = -1;
+        for (Heap.HeapItem item; (item = queue.deleteMin()) != null; ) {
+            assertTrue(item.key >= last);
+            last = item.key;
+            keys.add(item.key);
+        }
+        Collections.sort(keys);
+        assertEquals(1000 + threads * perThread, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i));
+        }
+    }
+
+    @Test
+    void testConcurrentAbsorb() throws InterruptedException {
+        HeapAggregator queue = new HeapAggregator(true);
+        AtomicBoolean done = new AtomicBoolean();
+        int[] absorbed = new int[1];
+        Thread consumer = new Thread(() -> {
+            while (!done.get()) {
+                absorbed[0] += queue.absorb();
+            }
+        });
+        consumer.start();
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 50000; i++) {
+                    queue.insert(i, null);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        done.set(true);
+        consumer.join();
+        absorbed[0] += queue.absorb();
+        assertEquals(200000, absorbed[0]);
+        assertEquals(200000, queue.size());
+    }
+
+    @Test
+    void testIdleProducersAreRemoved() throws InterruptedException {
+        HeapAggregator queue = new HeapAggregator(true);
+        queue.insert(1000, null);
+        for (int t = 0; t < 100; t++) {
+            int key = t;
+            Thread thread = new Thread(() -> queue.insert(key, null));
+            thread.start();
+            thread.join();
+        }
+        assertEquals(101, queue.numProducers());
+        // enough absorbs for every producer to age out but the first in the list
+        for (int i = 0; i < 2000; i++) {
+            queue.absorb();
+        }
+        assertEquals(1, queue.numProducers());
+        // this thread's producer was unlinked while the thread lives: it is linked again on insert
+        queue.insert(100, null);
+        assertEquals(2, queue.numProducers());
+        for (int key = 0; key <= 100; key++) {
+            assertEquals(key, queue.deleteMin().key);
+        }
+        assertEquals(1000, queue.deleteMin().key);
+        assertNull(queue.deleteMin());
+    }
+}
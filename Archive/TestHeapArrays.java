@@ -0,0 +1,149 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestHeapArrays {
+    static final boolean[][] CONFIGS = TestHeapLong.CONFIGS;
+
+    @Test
+    void testEmpty() {
+        HeapArrays heap = new HeapArrays(true, true);
+        assertEquals(HeapArrays.NIL, heap.findMin());
+        heap.deleteMin();
+        assertEquals(0, heap.size());
+    }
+
+    /**
+     * Same operations on Heap and HeapArrays give the same structure, so all counters agree.
+     */
+    @Test
+    void testMatchesHeap() {
+        Random random = new Random(3);
+        for (boolean[] c : CONFIGS) {
+            Heap heap = new Heap(c[0], c[1]);
+            HeapArrays arrays = new HeapArrays(c[0], c[1], 1);
+            List<Heap.HeapItem> items = new ArrayList<>();
+            List<Integer> handles = new ArrayList<>();
+            for (int op = 0; op < 20000; op++) {
+                int r = random.nextInt(10);
+                if (r < 5 || items.isEmpty()) {
+                    int key = random.nextInt(1_000_000);
+                    items.add(heap.insert(key, null));
+                    handles.add(arrays.insert(key));
+                } else if (r < 7) {
+                    int i = items.indexOf(heap.findMin());
+                    assertEquals(heap.findMin().key, arrays.key(handles.get(i)));
+                    heap.deleteMin();
+                    arrays.deleteMin();
+                    items.remove(i);
+                    handles.remove(i);
+                } else {
+                    int i = random.nextInt(items.size());
+                    int diff = random.nextInt(items.get(i).key + 1);
+                    heap.decreaseKey(items.get(i), diff);
+                    arrays.decreaseKey(handles.get(i), diff);
+                }
+                assertEquals(heap.size(), arrays.size());
+                if (heap.size() > 0) {
+                    assertEquals(heap.findMin().key, arrays.key(arrays.findMin()));
+                }
+                assertEquals(heap.numTrees(), arrays.numTrees());
+                assertEquals(heap.totalLinks(), arrays.totalLinks());
+                assertEquals(heap.totalCuts(), arrays.totalCuts());
+                assertEquals(heap.totalHeapifyCosts(), arrays.totalHeapifyCosts());
+                assertEquals(heap.numMarkedNodes(), arrays.numMarkedNodes());
+            }
+            for (int i = 0; i < items.size(); i++) {
+                assertEquals(items.get(i).key, arrays.key(handles.get(i)));
+            }
+        }
+    }
+
+    /**
+     * A marked child promoted to a root by deleteMin is unmarked when it is deleted.
+     */
+    @Test
+    void testMarkedRootsDeleted() {
+        Random random = new Random(11);
+        HeapArrays heap = new HeapArrays(true, true);
+        List<Integer> live = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            live.add(heap.insert(random.nextInt(100000) + 1000));
+        }
+        for (int round = 0; round < 10; round++) {
+            live.remove((Integer) heap.findMin());
+            heap.deleteMin();
+            for (int i = 0; i < 50; i++) {
+                int h = live.get(random.nextInt(live.size()));
+                heap.decreaseKey(h, random.nextInt(heap.key(h) + 1));
+            }
+        }
+        while (heap.size() > 0) {
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numMarkedNodes());
+    }
+
+    @Test
+    void testDeleteAndReuse() {
+        for (boolean[] c : CONFIGS) {
+            HeapArrays heap = new HeapArrays(c[0], c[1]);
+            int[] handles = new int[200];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = heap.insert(i + 1000);
+            }
+            heap.deleteMin();
+            for (int i = handles.length - 1; i > 0; i--) {
+                heap.decreaseKey(handles[i], 1000);
+            }
+            for (int i = 1; i < 100; i++) {
+                heap.delete(handles[i]);
+                assertEquals(i + 1, heap.key(heap.findMin()));
+            }
+            // freed handles are reused, live ones keep their keys
+            for (int i = 0; i < 100; i++) {
+                heap.insert(5000 + i);
+            }
+            assertEquals(200, heap.size());
+            for (int i = 100; i < handles.length; i++) {
+                assertEquals(i, heap.key(handles[i]));
+            }
+            for (int i = 100; i < handles.length; i++) {
+                assertEquals(i, heap.key(heap.findMin()));
+                heap.deleteMin();
+            }
+            assertEquals(5000, heap.key(heap.findMin()));
+        }
+    }
+
+    @Test
+    void testMeldShiftsHandles() {
+        for (boolean[] c : CONFIGS) {
+            HeapArrays heap = new HeapArrays(c[0], c[1]);
+            HeapArrays other = new HeapArrays(c[0], c[1]);
+            for (int i = 0; i < 1000; i++) {
+                heap.insert(1000 + i);
+            }
+            int[] handles = new int[1000];
+            for (int i = 0; i < 1000; i++) {
+                handles[i] = other.insert(i);
+            }
+            other.deleteMin();
+            other.delete(handles[500]);
+            int offset = heap.meld(other);
+            assertEquals(0, other.size());
+            assertEquals(1998, heap.size());
+            assertEquals(1, heap.key(heap.findMin()));
+            heap.decreaseKey(handles[999] + offset, 999);
+            assertEquals(0, heap.key(heap.findMin()));
+            heap.insert(7);
+            heap.insert(8);
+            for (int k : new int[] {0, 1, 2, 3, 4, 5, 6, 7, 7, 8}) {
+                assertEquals(k, heap.key(heap.findMin()));
+                heap.deleteMin();
+            }
+        }
+    }
+}
@@ -146,6 +146,148 @@ class TestHeapBinomial {
         assertTrue(cost + cost2 <= heap.totalHeapifyCosts());
     }
 
+    @Test
+    void testInsertAll() {
+        int MAX = 10000;
+        int[] keys = new int[MAX];
+        String[] infos = new String[MAX];
+        for (int i = 0; i < MAX; i++) {
+            keys[i] = (i * 7919) % MAX;
+            infos[i] = "Value" + keys[i];
+        }
+        Heap.HeapItem[] items = heap.insertAll(keys, infos);
+        assertEquals(MAX, items.length);
+        assertEquals(MAX, heap.size());
+        assertEquals(countTreesAfterInsert(MAX), heap.numTrees());
+        assertEquals(0, heap.findMin().key);
+        for (int i = 0; i < MAX; i++) {
+            assertEquals(keys[i], items[i].key);
+            assertEquals(infos[i], items[i].info);
+        }
+        heap.decreaseKey(items[MAX - 1], items[MAX - 1].key);
+        heap.insertAll(new int[] {MAX, MAX + 1}, null);
+        int[] expected = Arrays.copyOf(keys, MAX + 2);
+        expected[MAX - 1] = 0;
+        expected[MAX] = MAX;
+        expected[MAX + 1] = MAX + 1;
+        Arrays.sort(expected);
+        for (int key : expected) {
+            assertEquals(key, heap.findMin().key);
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void testPollMany() {
+        int MAX = 5000;
+        int[] keys = new int[MAX];
+        Heap.HeapItem[] items = new Heap.HeapItem[MAX];
+        for (int i = 0; i < MAX; i++) {
+            keys[i] = random.nextInt(100000) + 1000;
+            items[i] = heap.insert(keys[i], "Value" + i);
+        }
+        Heap.HeapItem deleted = heap.findMin();
+        heap.deleteMin();
+        keys = Arrays.stream(keys).sorted().skip(1).toArray();
+        // the deleted item goes first, even if another item has the same key
+        Arrays.sort(items, (a, b) -> a == b ? 0 : a == deleted ? -1 : b == deleted ? 1 : Integer.compare(a.key, b.key));
+        for (int i = 1; i < MAX; i += 3) {
+            heap.decreaseKey(items[i], 1000);
+        }
+        int[] expected = new int[MAX - 1];
+        for (int i = 1; i < MAX; i++) {
+            expected[i - 1] = items[i].key;
+        }
+        Arrays.sort(expected);
+
+        Heap.HeapItem[] out = new Heap.HeapItem[700];
+        int polled = 0;
+        while (heap.size() > 1000) {
+            int k = heap.pollMany(out, 700);
+            for (int i = 0; i < k; i++) {
+                assertEquals(expected[polled++], out[i].key);
+            }
+            assertEquals(expected[polled], heap.findMin().key);
+        }
+        List<Heap.HeapItem> rest = new ArrayList<>();
+        assertEquals(heap.size(), heap.drainTo(rest, Integer.MAX_VALUE));
+        for (Heap.HeapItem item : rest) {
+            assertEquals(expected[polled++], item.key);
+        }
+        assertEquals(MAX - 1, polled);
+        assertEquals(0, heap.size());
+        assertEquals(null, heap.findMin());
+        assertEquals(0, heap.pollMany(out, 10));
+    }
+
+    @Test
+    void testMarkedRootsDeleted() {
+        // Cuts mark nodes, deleteMin promotes marked children to roots, and
+        // deleting such a root must unmark it: an empty heap has no marks.
+        Random seeded = new Random(11);
+        for (boolean batched : new boolean[] {false, true}) {
+            List<Heap.HeapItem> live = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                live.add(heap.insert(seeded.nextInt(100000) + 1000, "Value" + i));
+            }
+            for (int round = 0; round < 10; round++) {
+                live.remove(heap.findMin());
+                heap.deleteMin();
+                for (int i = 0; i < 50; i++) {
+                    Heap.HeapItem x = live.get(seeded.nextInt(live.size()));
+                    heap.decreaseKey(x, seeded.nextInt(x.key + 1));
+                }
+            }
+            if (batched) {
+                Heap.HeapItem[] out = new Heap.HeapItem[100];
+                while (heap.pollMany(out, out.length) > 0) {
+                }
+            } else {
+                while (heap.size() > 0) {
+                    heap.deleteMin();
+                }
+            }
+            assertEquals(0, heap.numMarkedNodes());
+        }
+    }
+
+    @Test
+    void testLongCascadingCut() {
+        if (!heap.lazyDecreaseKeys) {
+            return; // without lazy decrease keys there are no cuts
+        }
+        // A path root - c1 - ... - ck with c1..c(k-1) marked, built through the
+        // public fields: decreasing ck cuts every node on the path, far deeper
+        // than a recursive cascading cut could go.
+        int k = 100000;
+        Heap.HeapItem root = heap.insert(0, "root");
+        Heap.HeapNode parent = root.node;
+        Heap.HeapItem leaf = root;
+        for (int i = 1; i <= k; i++) {
+            leaf = new Heap.HeapItem(i, "Value" + i);
+            Heap.HeapNode node = new Heap.HeapNode(leaf);
+            leaf.node = node;
+            node.parent = parent;
+            parent.child = node;
+            parent.rank = 1;
+            if (i < k) {
+                node.mark = true;
+                heap._numMarkedNodes++;
+            }
+            parent = node;
+        }
+        heap.size += k;
+        heap.decreaseKey(leaf, leaf.key);
+        assertEquals(k, heap.totalCuts());
+        assertEquals(0, heap.numMarkedNodes());
+        assertEquals(k + 1, heap.size());
+        for (int i = 0; i <= k; i++) {
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.size());
+    }
+
     @Test
     void testSize() {
         int MAX = 1000;
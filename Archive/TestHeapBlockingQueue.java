@@ -0,0 +1,193 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+public class TestHeapBlockingQueue {
+
+    /** A Delayed element that expires at a fixed System.nanoTime(). */
+    static final class Timer implements Delayed {
+        final long deadline;
+
+        Timer(long delayMillis) {
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed o) {
+            return Long.compare(this.deadline, ((Timer) o).deadline);
+        }
+    }
+
+    @Test
+    void testPriorityOrder() {
+        HeapBlockingQueue<Integer> queue = new HeapBlockingQueue<>(Integer::longValue);
+        assertNull(queue.poll());
+        Random random = new Random(24);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(100000);
+            queue.offer(value);
+            expected.add(value);
+        }
+        Collections.sort(expected);
+        assertEquals(1000, queue.size());
+        assertEquals(expected.get(0), queue.peek());
+        List<Integer> out = new ArrayList<>();
+        assertEquals(10, queue.drainTo(out, 10));
+        assertEquals(990, queue.drainTo(out));
+        assertEquals(expected, out);
+        assertThrows(IllegalArgumentException.class, () -> queue.drainTo(queue));
+        assertThrows(NullPointerException.class, () -> queue.offer(null));
+    }
+
+    @Test
+    void testHandles() {
+        HeapBlockingQueue<String> queue = new HeapBlockingQueue<>(String::length);
+        queue.offer("ccc");
+        HeapBlockingQueue.Handle<String> late = queue.insert("late", 100);
+        HeapBlockingQueue.Handle<String> gone = queue.insert("gone", 50);
+        assertTrue(queue.decreaseKey(late, 0));
+        assertThrows(IllegalArgumentException.class, () -> queue.decreaseKey(gone, 60));
+        assertTrue(queue.remove(gone));
+        assertFalse(queue.remove(gone));
+        assertEquals("late", queue.poll());
+        assertFalse(queue.decreaseKey(late, 0));
+        assertEquals(0, late.priority());
+        // a handle of another queue is refused and leaves both queues intact
+        HeapBlockingQueue<String> other = new HeapBlockingQueue<>(String::length);
+        HeapBlockingQueue.Handle<String> foreign = other.insert("foreign", 7);
+        assertFalse(queue.remove(foreign));
+        assertFalse(queue.decreaseKey(foreign, 0));
+        assertEquals(1, other.size());
+        other.clear();
+        assertFalse(other.remove(foreign));
+        assertEquals(7, foreign.priority());
+        queue.offer("a");
+        queue.offer("bb");
+        assertTrue(queue.remove("bb"));
+        assertFalse(queue.remove("bb"));
+        Iterator<String> it = queue.iterator();
+        List<String> seen = new ArrayList<>();
+        while (it.hasNext()) {
+            seen.add(it.next());
+            it.remove();
+        }
+        Collections.sort(seen);
+        assertEquals(List.of("a", "ccc"), seen);
+        assertTrue(queue.isEmpty());
+        queue.offer("x");
+        queue.clear();
+        assertNull(queue.peek());
+    }
+
+    @Test
+    void testTimedPollAndTake() throws InterruptedException {
+        HeapBlockingQueue<Integer> queue = new HeapBlockingQueue<>(Integer::longValue);
+        long start = System.nanoTime();
+        assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.put(7);
+        });
+        producer.start();
+        assertEquals(7, queue.take());
+        producer.join();
+    }
+
+    @Test
+    void testDelayQueue() throws InterruptedException {
+        HeapBlockingQueue<Timer> queue = HeapBlockingQueue.delayQueue();
+        Timer later = new Timer(60);
+        Timer soon = new Timer(30);
+        Timer now = new Timer(-1);
+        queue.put(later);
+        queue.put(soon);
+        queue.put(now);
+        assertEquals(now, queue.poll());
+        assertNull(queue.poll());
+        assertEquals(soon, queue.peek());
+        assertEquals(0, queue.drainTo(new ArrayList<>()));
+        assertNull(queue.poll(5, TimeUnit.MILLISECONDS));
+        assertEquals(soon, queue.take());
+        assertTrue(soon.getDelay(TimeUnit.NANOSECONDS) <= 0);
+        assertEquals(later, queue.poll(1, TimeUnit.SECONDS));
+        assertTrue(later.getDelay(TimeUnit.NANOSECONDS) <= 0);
+        // rescheduling to now wakes a thread already waiting for the head
+        HeapBlockingQueue.Handle<Timer> item = queue.insert(new Timer(10_000));
+        Thread waker = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.decreaseKey(item, System.nanoTime());
+        });
+        waker.start();
+        assertEquals(item.element(), queue.poll(5, TimeUnit.SECONDS));
+        waker.join();
+        // a delay of Long.MAX_VALUE does not overflow into the past
+        queue.put(new Timer(Long.MAX_VALUE / 1_000_000));
+        assertNull(queue.poll());
+        queue.clear();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testProducersAndConsumers() throws InterruptedException {
+        int producers = 4, consumers = 4, perProducer = 20000;
+        HeapBlockingQueue<Integer> queue = new HeapBlockingQueue<>(Integer::longValue);
+        ConcurrentLinkedQueue<Integer> out = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.put(base + i);
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        out.add(queue.take());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<Integer> values = new ArrayList<>(out);
+        Collections.sort(values);
+        assertEquals(producers * perProducer, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
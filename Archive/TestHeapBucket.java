@@ -0,0 +1,80 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestHeapBucket {
+
+    @Test
+    void testRandomOps() {
+        TestHeapPairing.checkRandomOps(() -> new HeapBucket(999), 8, 20000, 1000);
+        TestHeapPairing.checkRandomOps(() -> new HeapBucket(5000), 9, 20000, 5000);
+    }
+
+    @Test
+    void testBuckets() {
+        HeapBucket heap = new HeapBucket(200);
+        Heap.HeapItem a = heap.insert(3, "a");
+        Heap.HeapItem b = heap.insert(3, "b");
+        Heap.HeapItem c = heap.insert(199, "c");
+        assertEquals(2, heap.numTrees());
+        assertSame(a, heap.findMin());
+        heap.decreaseKey(c, 196);
+        assertEquals(1, heap.numTrees());
+        heap.deleteMin();
+        heap.delete(c);
+        assertSame(b, heap.findMin());
+        heap.insert(150, null);
+        heap.deleteMin();
+        // the next minimum, 150, is two bitmap words above 3
+        assertEquals(2, heap.totalHeapifyCosts());
+        assertEquals(150, heap.findMin().key);
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(201, null));
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(-1, null));
+    }
+
+    @Test
+    void testMeld() {
+        HeapBucket heap = new HeapBucket(100);
+        HeapBucket other = new HeapBucket(50);
+        for (int key = 0; key <= 50; key += 5) {
+            heap.insert(key + 1, null);
+            other.insert(key, null);
+        }
+        Heap.HeapItem x = other.insert(40, null);
+        heap.meld(other);
+        assertEquals(0, other.size());
+        assertNull(other.findMin());
+        assertEquals(23, heap.size());
+        heap.decreaseKey(x, 40);
+        heap.delete(x);
+        for (int key = 0; key <= 50; key += 5) {
+            assertEquals(key, heap.findMin().key);
+            heap.deleteMin();
+            assertEquals(key + 1, heap.findMin().key);
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numTrees());
+        heap.insert(60, null);
+        assertThrows(IllegalArgumentException.class, () -> other.meld(heap));
+    }
+
+    @Test
+    void testFactory() {
+        assertTrue(HeapFactory.forKeyRange(1000) instanceof HeapBucket);
+        assertTrue(HeapFactory.forKeyRange(Integer.MAX_VALUE - 1) instanceof Heap);
+        for (HeapFactory.Engine engine : HeapFactory.Engine.values()) {
+            AddressableHeap<?> heap = HeapFactory.create(engine, 100);
+            heap.insert(7, null);
+            Heap.HeapItem x = heap.insert(50, null);
+            heap.decreaseKey(x, 45);
+            assertEquals(5, heap.findMin().key);
+        }
+        Heap heap = (Heap) HeapFactory.create("BINOMIAL_WITH_CUTS", 0);
+        assertTrue(heap.lazyDecreaseKeys);
+        assertFalse(heap.lazyMelds);
+    }
+}
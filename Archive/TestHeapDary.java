@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestHeapDary {
+    static final int[] ARITIES = {2, 3, 4, 8};
+
+    @Test
+    void testRandomOps() {
+        for (int d : ARITIES) {
+            TestHeapPairing.checkRandomOps(() -> new HeapDary(d), 6, 20000);
+        }
+    }
+
+    @Test
+    void testMeldLargeAndSmall() {
+        for (int d : ARITIES) {
+            for (int otherSize : new int[] {5, 5000}) {
+                HeapDary heap = new HeapDary(d, 1);
+                HeapDary other = new HeapDary(d);
+                Heap.HeapItem[] items = new Heap.HeapItem[otherSize];
+                for (int i = 0; i < 1000; i++) {
+                    heap.insert(2 * i + 1, null);
+                }
+                for (int i = 0; i < otherSize; i++) {
+                    items[i] = other.insert(2 * i, null);
+                }
+                heap.meld(other);
+                assertEquals(0, other.size());
+                assertNull(other.findMin());
+                assertEquals(1000 + otherSize, heap.size());
+                // handles of the melded heap still work
+                heap.decreaseKey(items[otherSize - 1], 2 * (otherSize - 1));
+                heap.delete(items[1]);
+                assertEquals(0, heap.findMin().key);
+                heap.deleteMin();
+                assertEquals(0, heap.findMin().key);
+                heap.deleteMin();
+                assertEquals(1, heap.findMin().key);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsForeignAndDeletedItems() {
+        HeapDary heap = new HeapDary(4);
+        HeapDary other = new HeapDary(4);
+        Heap.HeapItem x = heap.insert(5, null);
+        Heap.HeapItem y = other.insert(3, null);
+        assertNotNull(x.node);
+        assertThrows(IllegalArgumentException.class, () -> heap.delete(y));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(y, 1));
+        heap.delete(x);
+        assertNull(x.node);
+        assertThrows(IllegalArgumentException.class, () -> heap.delete(x));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(x, 1));
+        // a melded item moves to its new heap
+        heap.meld(other);
+        assertThrows(IllegalArgumentException.class, () -> other.delete(y));
+        heap.delete(y);
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void testHeapifyCosts() {
+        HeapDary heap = new HeapDary(2);
+        for (int i = 7; i >= 1; i--) {
+            heap.insert(i, null);
+        }
+        // each new key is the smallest, so it rises to the root: 6 and 5 one step, 4 to 1 two steps
+        assertEquals(10, heap.totalHeapifyCosts());
+        assertEquals(1, heap.numTrees());
+        assertEquals(0, heap.totalLinks());
+        assertThrows(IllegalArgumentException.class, () -> new HeapDary(1));
+    }
+}
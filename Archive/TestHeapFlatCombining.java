@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class TestHeapFlatCombining {
+
+    @Test
+    void testSequential() {
+        HeapFlatCombining queue = new HeapFlatCombining(true, true);
+        assertNull(queue.deleteMin());
+        Heap.HeapItem a = queue.insert(10, "a");
+        Heap.HeapItem b = queue.insert(20, "b");
+        queue.insert(30, "c");
+        queue.decreaseKey(b, 15);
+        assertSame(b, queue.findMin());
+        queue.delete(a);
+        assertEquals(2, queue.size());
+        assertSame(b, queue.deleteMin());
+        assertEquals("c", queue.deleteMin().info);
+        assertNull(queue.findMin());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(-1, null));
+        // errors in the combiner reach the calling thread
+        assertThrows(NullPointerException.class, () -> queue.delete(null));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testIdleRecordsAreRemoved() throws InterruptedException {
+        HeapFlatCombining queue = new HeapFlatCombining(true, true);
+        Heap.HeapItem first = queue.insert(1000, null);
+        for (int t = 0; t < 100; t++) {
+            int key = t;
+            Thread thread = new Thread(() -> queue.insert(key, null));
+            thread.start();
+            thread.join();
+        }
+        assertEquals(101, queue.numRecords());
+        // every call of another thread is one combining turn: enough turns for
+        // the records of the finished threads, and of this idle one, to age out
+        Thread busy = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                queue.findMin();
+            }
+        });
+        busy.start();
+        busy.join();
+        assertEquals(1, queue.numRecords());
+        // this thread's record was unlinked while the thread lives: it is linked again on use
+        assertEquals(0, queue.deleteMin().key);
+        assertEquals(2, queue.numRecords());
+        for (int key = 1; key < 100; key++) {
+            assertEquals(key, queue.deleteMin().key);
+        }
+        assertSame(first, queue.deleteMin());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testConcurrentOperations() throws InterruptedException {
+        int threads = 8, perThread = 10000;
+        HeapFlatCombining queue = new HeapFlatCombining(true, true);
+        ConcurrentLinkedQueue<Integer> out = new ConcurrentLinkedQueue<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // insert base+i with a larger key, then decrease it to base+i
+                    Heap.HeapItem item = queue.insert(base + i + 1_000_000, null);
+                    queue.decreaseKey(item, 1_000_000);
+                    if (i % 2 == 1) {
+                        out.add(queue.deleteMin().key);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread / 2, queue.size());
+        int last = -1;
+        for (Heap.HeapItem item; (item = queue.deleteMin()) != null; ) {
+            assertTrue(item.key >= last);
+            last = item.key;
+            out.add(item.key);
+        }
+        List<Integer> keys = new ArrayList<>(out);
+        Collections.sort(keys);
+        assertEquals(threads * perThread, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i));
+        }
+        assertTrue(queue.combiningRate() >= 1);
+    }
+}
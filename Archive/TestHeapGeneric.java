@@ -0,0 +1,161 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class TestHeapGeneric {
+    static final boolean[][] CONFIGS = TestHeapLong.CONFIGS;
+
+    @Test
+    void testComparatorAndValues() {
+        for (boolean[] c : CONFIGS) {
+            HeapGeneric<String, Integer> heap = new HeapGeneric<>(c[0], c[1], Comparator.comparing(String::length));
+            heap.insert("ccc", 3);
+            heap.insert("a", 1);
+            heap.insert("bb", 2);
+            assertEquals("a", heap.findMin().key());
+            assertEquals(1, heap.deleteMin());
+            assertEquals(2, heap.deleteMin());
+            assertEquals(3, heap.deleteMin());
+            assertNull(heap.deleteMin());
+        }
+    }
+
+    @Test
+    void testNaturalOrder() {
+        HeapGeneric<String, String> heap = new HeapGeneric<>(true, true, null);
+        HeapGeneric.HeapItem<String, String> z = heap.insert("z", "last");
+        heap.insert("m", "middle");
+        heap.decreaseKey(z, "a");
+        assertEquals("last", heap.deleteMin());
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(heap.findMin(), "zz"));
+    }
+
+    @Test
+    void testIntMaxHeap() {
+        for (boolean[] c : CONFIGS) {
+            HeapGeneric<Integer, String> heap = HeapGeneric.intMaxHeap(c[0], c[1]);
+            HeapGeneric.HeapItem<Integer, String> low = heap.insertLong(1, "low");
+            heap.insert(50, "mid");
+            heap.insertLong(100, "high");
+            assertEquals(100, heap.findMin().key());
+            heap.decreaseKeyLong(low, 200); // "decrease" moves towards the top
+            assertEquals("low", heap.deleteMin());
+            assertEquals("high", heap.deleteMin());
+            assertThrows(IllegalArgumentException.class, () -> heap.decreaseKeyLong(heap.findMin(), 0));
+            assertThrows(IllegalArgumentException.class, () -> heap.insertLong(1L << 40, "wide"));
+        }
+    }
+
+    @Test
+    void testPrimitiveOnlyOperations() {
+        HeapGeneric<Integer, String> heap = new HeapGeneric<>(true, true, null);
+        assertThrows(UnsupportedOperationException.class, () -> heap.insertLong(1, "x"));
+    }
+
+    @Test
+    void testMeldRejectsOtherOrdering() {
+        HeapGeneric<Long, String> min = HeapGeneric.longMinHeap(true, true);
+        HeapGeneric<Long, String> max = HeapGeneric.longMaxHeap(true, true);
+        min.insert(1L, "a");
+        max.insert(2L, "b");
+        assertThrows(IllegalArgumentException.class, () -> min.meld(max));
+    }
+
+    @Test
+    void testMarkedRootsDeleted() {
+        // a marked child promoted to a root by deleteMin is unmarked when it is deleted
+        Random random = new Random(11);
+        HeapGeneric<Long, String> heap = HeapGeneric.longMinHeap(true, true);
+        List<HeapGeneric.HeapItem<Long, String>> live = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            live.add(heap.insertLong(random.nextInt(100000) + 1000, "Value" + i));
+        }
+        for (int round = 0; round < 10; round++) {
+            live.remove(heap.findMin());
+            heap.deleteMin();
+            for (int i = 0; i < 50; i++) {
+                HeapGeneric.HeapItem<Long, String> x = live.get(random.nextInt(live.size()));
+                heap.decreaseKeyLong(x, x.longKey() - random.nextInt(100000));
+            }
+        }
+        while (heap.size() > 0) {
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numMarkedNodes());
+    }
+
+    @Test
+    void testForEach() {
+        Random random = new Random(25);
+        for (boolean[] c : CONFIGS) {
+            HeapGeneric<Long, Long> heap = HeapGeneric.longMinHeap(c[0], c[1]);
+            for (int i = 0; i < 1000; i++) {
+                long key = random.nextInt(1_000_000);
+                heap.insertLong(key, key);
+            }
+            heap.deleteMin();
+            List<HeapGeneric.HeapItem<Long, Long>> seen = new ArrayList<>();
+            heap.forEach(seen::add);
+            assertEquals(heap.size(), seen.size());
+            PriorityQueue<Long> truth = new PriorityQueue<>();
+            seen.forEach(item -> truth.add(item.value));
+            while (!truth.isEmpty()) {
+                assertEquals(truth.poll(), heap.deleteMin());
+            }
+            heap.forEach(item -> { throw new AssertionError("empty heap has items"); });
+        }
+    }
+
+    @Test
+    void testRandomAgainstPriorityQueue() {
+        Random random = new Random(7);
+        for (boolean[] c : CONFIGS) {
+            for (boolean max : new boolean[] {false, true}) {
+                HeapGeneric<Long, Long> heap = max ? HeapGeneric.longMaxHeap(c[0], c[1]) : HeapGeneric.longMinHeap(c[0], c[1]);
+                HeapGeneric<Long, Long> other = max ? HeapGeneric.longMaxHeap(c[0], c[1]) : HeapGeneric.longMinHeap(c[0], c[1]);
+                Comparator<Long> order = max ? Comparator.reverseOrder() : Comparator.naturalOrder();
+                PriorityQueue<Long> truth = new PriorityQueue<>(order);
+                List<HeapGeneric.HeapItem<Long, Long>> live = new ArrayList<>();
+                for (int op = 0; op < 10000; op++) {
+                    int r = random.nextInt(10);
+                    if (r < 4 || live.isEmpty()) {
+                        long key = random.nextInt(1_000_000);
+                        live.add(heap.insertLong(key, key));
+                        truth.add(key);
+                    } else if (r < 6) {
+                        HeapGeneric.HeapItem<Long, Long> top = heap.findMin();
+                        assertEquals(truth.poll(), heap.deleteMin());
+                        live.remove(top);
+                    } else if (r < 8) {
+                        HeapGeneric.HeapItem<Long, Long> item = live.get(random.nextInt(live.size()));
+                        long newKey = item.longKey() + (max ? 1 : -1) * random.nextInt(1000);
+                        truth.remove(item.longKey());
+                        truth.add(newKey);
+                        heap.decreaseKey(item, newKey);
+                        item.value = newKey;
+                    } else if (r < 9) {
+                        HeapGeneric.HeapItem<Long, Long> item = live.remove(random.nextInt(live.size()));
+                        truth.remove(item.longKey());
+                        heap.delete(item);
+                    } else {
+                        long key = random.nextInt(1_000_000);
+                        live.add(other.insertLong(key, key));
+                        truth.add(key);
+                        heap.meld(other);
+                        other = max ? HeapGeneric.longMaxHeap(c[0], c[1]) : HeapGeneric.longMinHeap(c[0], c[1]);
+                    }
+                    assertEquals(truth.size(), heap.size());
+                    if (!truth.isEmpty()) {
+                        assertEquals(truth.peek(), heap.findMin().key());
+                    }
+                }
+            }
+        }
+    }
+}
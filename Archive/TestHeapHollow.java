@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestHeapHollow {
+
+    @Test
+    void testRandomOps() {
+        TestHeapPairing.checkRandomOps(HeapHollow::new, 3, 20000);
+    }
+
+    @Test
+    void testHollowNodes() {
+        HeapHollow heap = new HeapHollow();
+        Heap.HeapItem[] items = new Heap.HeapItem[64];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = heap.insert(1000 + i, "v" + i);
+        }
+        heap.deleteMin();
+        assertEquals(0, heap.numHollowNodes());
+
+        // each decreaseKey of a non-root and each delete of a non-minimum leaves one hollow node
+        heap.decreaseKey(items[40], 500);
+        heap.decreaseKey(items[41], 600);
+        heap.delete(items[42]);
+        assertEquals(3, heap.numHollowNodes());
+        assertSame(items[41], heap.findMin());
+        assertNull(items[42].node);
+        assertEquals(62, heap.size());
+
+        // handles survive the move to a new node
+        heap.decreaseKey(items[10], 1010);
+        assertSame(items[10], heap.findMin());
+        assertEquals("v10", heap.findMin().info);
+
+        int last = -1;
+        while (heap.size() > 0) {
+            int key = heap.findMin().key;
+            assertEquals(true, key >= last);
+            last = key;
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numHollowNodes());
+        assertNull(heap.findMin());
+    }
+
+    @Test
+    void testCounters() {
+        HeapHollow heap = new HeapHollow();
+        for (int i = 0; i < 8; i++) {
+            heap.insert(i, null);
+        }
+        // every insert links the new node with the root
+        assertEquals(7, heap.totalLinks());
+        heap.deleteMin();
+        // seven full children are linked by rank: 1 + 2 + 1 links, then the ranks 0, 1 and 2 are joined
+        assertEquals(7 + 4 + 2, heap.totalLinks());
+        assertEquals(1, heap.numTrees());
+        assertEquals(0, heap.totalCuts());
+        assertEquals(0, heap.numMarkedNodes());
+    }
+}
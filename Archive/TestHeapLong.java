@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestHeapLong {
+    static final boolean[][] CONFIGS = {
+        {true, true}, {false, false}, {true, false}, {false, true}
+    };
+
+    @Test
+    void testKeysBeyondIntRange() {
+        for (boolean[] c : CONFIGS) {
+            HeapLong heap = new HeapLong(c[0], c[1]);
+            heap.insert(Long.MAX_VALUE, "max");
+            heap.insert(1L << 40, "big");
+            heap.insert(Long.MIN_VALUE, "min");
+            heap.insert(-5, "neg");
+            assertEquals(Long.MIN_VALUE, heap.findMin().key);
+            heap.deleteMin();
+            assertEquals(-5, heap.findMin().key);
+            heap.deleteMin();
+            assertEquals(1L << 40, heap.findMin().key);
+            heap.deleteMin();
+            assertEquals(Long.MAX_VALUE, heap.findMin().key);
+            heap.deleteMin();
+            assertNull(heap.findMin());
+            assertEquals(0, heap.size());
+        }
+    }
+
+    @Test
+    void testDecreaseKeyOverflow() {
+        HeapLong heap = new HeapLong(true, true);
+        HeapLong.HeapItem item = heap.insert(-10, "x");
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(item, Long.MAX_VALUE));
+        assertEquals(-10, item.key);
+    }
+
+    @Test
+    void testDeleteKeepsKeys() {
+        for (boolean[] c : CONFIGS) {
+            HeapLong heap = new HeapLong(c[0], c[1]);
+            HeapLong.HeapItem[] items = new HeapLong.HeapItem[100];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = heap.insert(Long.MIN_VALUE + i, "Value" + i);
+            }
+            heap.deleteMin();
+            for (int i = items.length - 1; i > 1; i--) {
+                long key = items[i].key;
+                heap.delete(items[i]);
+                assertEquals(key, items[i].key);
+                assertEquals(Long.MIN_VALUE + 1, heap.findMin().key);
+            }
+            assertEquals(1, heap.size());
+        }
+    }
+
+    @Test
+    void testMarkedRootsDeleted() {
+        // a marked child promoted to a root by deleteMin is unmarked when it is deleted
+        Random random = new Random(11);
+        HeapLong heap = new HeapLong(true, true);
+        List<HeapLong.HeapItem> live = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            live.add(heap.insert(random.nextInt(100000) + 1000, "Value" + i));
+        }
+        for (int round = 0; round < 10; round++) {
+            live.remove(heap.findMin());
+            heap.deleteMin();
+            for (int i = 0; i < 50; i++) {
+                HeapLong.HeapItem x = live.get(random.nextInt(live.size()));
+                heap.decreaseKey(x, random.nextInt(100000));
+            }
+        }
+        while (heap.size() > 0) {
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numMarkedNodes());
+    }
+
+    @Test
+    void testRandomAgainstTreeMap() {
+        Random random = new Random(42);
+        for (boolean[] c : CONFIGS) {
+            HeapLong heap = new HeapLong(c[0], c[1]);
+            TreeMap<Long, Integer> truth = new TreeMap<>();
+            List<HeapLong.HeapItem> live = new ArrayList<>();
+            for (int op = 0; op < 20000; op++) {
+                int r = random.nextInt(10);
+                if (r < 4 || live.isEmpty()) {
+                    long key = random.nextLong() >> 2;
+                    live.add(heap.insert(key, null));
+                    truth.merge(key, 1, Integer::sum);
+                } else if (r < 6) {
+                    HeapLong.HeapItem min = heap.findMin();
+                    assertEquals(truth.firstKey(), min.key);
+                    heap.deleteMin();
+                    live.remove(min);
+                    truth.merge(min.key, -1, Integer::sum);
+                    truth.remove(min.key, 0);
+                } else if (r < 8) {
+                    HeapLong.HeapItem item = live.get(random.nextInt(live.size()));
+                    long diff = random.nextInt(1 << 30);
+                    truth.merge(item.key, -1, Integer::sum);
+                    truth.remove(item.key, 0);
+                    heap.decreaseKey(item, diff);
+                    truth.merge(item.key, 1, Integer::sum);
+                } else {
+                    HeapLong.HeapItem item = live.remove(random.nextInt(live.size()));
+                    heap.delete(item);
+                    truth.merge(item.key, -1, Integer::sum);
+                    truth.remove(item.key, 0);
+                }
+                assertEquals(live.size(), heap.size());
+                if (!live.isEmpty()) {
+                    assertEquals(truth.firstKey(), heap.findMin().key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class TestHeapMultiQueue {
+
+    @Test
+    void testOneShardIsExact() {
+        HeapMultiQueue queue = new HeapMultiQueue(1, false, false);
+        for (int key : new int[] {5, 3, 9, 1, 7}) {
+            queue.insert(key, "v" + key);
+        }
+        for (int key : new int[] {1, 3, 5, 7, 9}) {
+            Heap.HeapItem item = queue.deleteMin();
+            assertEquals(key, item.key);
+            assertEquals("v" + key, item.info);
+        }
+        assertNull(queue.deleteMin());
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(-1, null));
+        // the largest int key is a key like any other, as in Heap
+        queue.insert(Integer.MAX_VALUE, "max");
+        assertEquals(Integer.MAX_VALUE, queue.deleteMin().key);
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new HeapMultiQueue(0, true, true));
+    }
+
+    @Test
+    void testEveryItemComesOut() {
+        HeapMultiQueue queue = HeapMultiQueue.forThreads(4, 2);
+        assertEquals(8, queue.numShards());
+        for (int key = 0; key < 1000; key++) {
+            queue.insert(key, null);
+        }
+        assertEquals(1000, queue.size());
+        List<Integer> out = new ArrayList<>();
+        long rankError = 0;
+        for (Heap.HeapItem item; (item = queue.deleteMin()) != null; ) {
+            rankError += item.key - out.size();
+            out.add(item.key);
+        }
+        Collections.sort(out);
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(key, out.get(key));
+        }
+        // keys come out roughly in order: the average rank error is a small multiple of the shards
+        assertTrue(rankError / 1000.0 < 8 * queue.numShards());
+    }
+
+    @Test
+    void testConcurrentInsertAndDeleteMin() throws InterruptedException {
+        int threads = 4, perThread = 20000;
+        HeapMultiQueue queue = HeapMultiQueue.forThreads(threads, 2);
+        ConcurrentLinkedQueue<Integer> out = new ConcurrentLinkedQueue<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queue.insert(base + i, null);
+                    if (i % 2 == 1) {
+                        out.add(queue.deleteMin().key);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (Heap.HeapItem item; (item = queue.deleteMin()) != null; ) {
+            out.add(item.key);
+        }
+        List<Integer> keys = new ArrayList<>(out);
+        Collections.sort(keys);
+        assertEquals(threads * perThread, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i));
+        }
+    }
+}
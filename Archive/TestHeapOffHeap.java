@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestHeapOffHeap {
+    static final boolean[][] CONFIGS = TestHeapLong.CONFIGS;
+
+    /**
+     * Same operations on HeapArrays and HeapOffHeap give the same handles, keys and counters.
+     */
+    @Test
+    void testMatchesHeapArrays() {
+        Random random = new Random(11);
+        for (boolean[] c : CONFIGS) {
+            HeapArrays arrays = new HeapArrays(c[0], c[1]);
+            try (HeapOffHeap heap = new HeapOffHeap(c[0], c[1])) {
+                List<Integer> handles = new ArrayList<>();
+                for (int op = 0; op < 100000; op++) {
+                    int r = random.nextInt(12);
+                    if (r < 6 || handles.isEmpty()) {
+                        int key = random.nextInt(1_000_000);
+                        int h = arrays.insert(key);
+                        assertEquals(h, heap.insert(key));
+                        handles.add(h);
+                    } else if (r < 8) {
+                        handles.remove((Integer) heap.findMin());
+                        arrays.deleteMin();
+                        heap.deleteMin();
+                    } else if (r < 11) {
+                        int h = handles.get(random.nextInt(handles.size()));
+                        int diff = random.nextInt(heap.key(h) + 1);
+                        arrays.decreaseKey(h, diff);
+                        heap.decreaseKey(h, diff);
+                    } else {
+                        int h = handles.remove(random.nextInt(handles.size()));
+                        arrays.delete(h);
+                        heap.delete(h);
+                    }
+                    assertEquals(arrays.size(), heap.size());
+                    assertEquals(arrays.findMin(), heap.findMin());
+                    assertEquals(arrays.numTrees(), heap.numTrees());
+                    assertEquals(arrays.totalLinks(), heap.totalLinks());
+                    assertEquals(arrays.totalCuts(), heap.totalCuts());
+                    assertEquals(arrays.totalHeapifyCosts(), heap.totalHeapifyCosts());
+                    assertEquals(arrays.numMarkedNodes(), heap.numMarkedNodes());
+                }
+                for (int h : handles) {
+                    assertEquals(arrays.key(h), heap.key(h));
+                }
+            }
+        }
+    }
+
+    /**
+     * A marked child promoted to a root by deleteMin is unmarked when it is deleted.
+     */
+    @Test
+    void testMarkedRootsDeleted() {
+        Random random = new Random(11);
+        try (HeapOffHeap heap = new HeapOffHeap(true, true)) {
+            List<Integer> live = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                live.add(heap.insert(random.nextInt(100000) + 1000));
+            }
+            for (int round = 0; round < 10; round++) {
+                live.remove((Integer) heap.findMin());
+                heap.deleteMin();
+                for (int i = 0; i < 50; i++) {
+                    int h = live.get(random.nextInt(live.size()));
+                    heap.decreaseKey(h, random.nextInt(heap.key(h) + 1));
+                }
+            }
+            while (heap.size() > 0) {
+                heap.deleteMin();
+            }
+            assertEquals(0, heap.numMarkedNodes());
+        }
+    }
+
+    @Test
+    void testSpansChunksAndMelds() {
+        for (boolean[] c : CONFIGS) {
+            try (HeapOffHeap heap = new HeapOffHeap(c[0], c[1]);
+                 HeapOffHeap other = new HeapOffHeap(c[0], c[1])) {
+                int n = 150_000;
+                for (int i = 0; i < n; i++) {
+                    heap.insert(2 * i + 1);
+                    other.insert(2 * i);
+                }
+                int offset = heap.meld(other);
+                assertEquals(n, offset);
+                assertEquals(0, other.size());
+                assertEquals(0, other.offHeapBytes());
+                assertEquals(2 * n, heap.size());
+                for (int k = 0; k < 1000; k++) {
+                    assertEquals(k, heap.key(heap.findMin()));
+                    heap.deleteMin();
+                }
+                heap.decreaseKey(offset + n - 1, 2 * (n - 1));
+                assertEquals(0, heap.key(heap.findMin()));
+                // the melded-away heap grows its storage again when reused
+                int h = other.insert(7);
+                assertEquals(7, other.key(other.findMin()));
+                assertEquals(h, other.findMin());
+            }
+        }
+    }
+
+    @Test
+    void testClose() {
+        HeapOffHeap heap = new HeapOffHeap(true, true);
+        heap.insert(1);
+        heap.close();
+        assertEquals(0, heap.offHeapBytes());
+        assertThrows(IllegalStateException.class, () -> heap.insert(2));
+        assertThrows(IllegalStateException.class, heap::findMin);
+        heap.close();
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class TestHeapPairing {
+
+    /**
+     * Random inserts, deleteMins, decreaseKeys, deletes and melds on any engine,
+     * checked against a PriorityQueue of the keys.
+     */
+    static <H extends AddressableHeap<H>> void checkRandomOps(Supplier<H> engine, long seed, int ops) {
+        checkRandomOps(engine, seed, ops, 1_000_000);
+    }
+
+    /**
+     * The same, with keys in 0..keyBound-1.
+     */
+    static <H extends AddressableHeap<H>> void checkRandomOps(Supplier<H> engine, long seed, int ops, int keyBound) {
+        Random random = new Random(seed);
+        H heap = engine.get();
+        PriorityQueue<Integer> truth = new PriorityQueue<>();
+        List<Heap.HeapItem> live = new ArrayList<>();
+        for (int op = 0; op < ops; op++) {
+            int r = random.nextInt(10);
+            if (r < 4 || live.isEmpty()) {
+                int key = random.nextInt(keyBound);
+                live.add(heap.insert(key, "v" + key));
+                truth.add(key);
+            } else if (r < 6) {
+                Heap.HeapItem min = heap.findMin();
+                assertEquals(truth.poll(), min.key);
+                live.remove(min);
+                heap.deleteMin();
+            } else if (r < 8) {
+                Heap.HeapItem item = live.get(random.nextInt(live.size()));
+                int diff = random.nextInt(item.key + 1);
+                truth.remove(item.key);
+                heap.decreaseKey(item, diff);
+                truth.add(item.key);
+            } else if (r < 9) {
+                Heap.HeapItem item = live.remove(random.nextInt(live.size()));
+                truth.remove(item.key);
+                heap.delete(item);
+            } else {
+                H other = engine.get();
+                for (int i = random.nextInt(20); i > 0; i--) {
+                    int key = random.nextInt(keyBound);
+                    live.add(other.insert(key, "v" + key));
+                    truth.add(key);
+                }
+                heap.meld(other);
+            }
+            assertEquals(truth.size(), heap.size());
+            if (truth.isEmpty()) {
+                assertNull(heap.findMin());
+            } else {
+                assertEquals(truth.peek(), heap.findMin().key);
+            }
+        }
+        for (Heap.HeapItem item : live) {
+            assertEquals("v", item.info.substring(0, 1));
+        }
+        while (!truth.isEmpty()) {
+            assertEquals(truth.poll(), heap.findMin().key);
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    void testRandomOps() {
+        checkRandomOps(HeapPairing::new, 1, 20000);
+    }
+
+    @Test
+    void testHeapThroughInterface() {
+        for (boolean[] c : TestHeapLong.CONFIGS) {
+            checkRandomOps(() -> new Heap(c[0], c[1]), 2, 5000);
+        }
+    }
+
+    @Test
+    void testCounters() {
+        HeapPairing heap = new HeapPairing();
+        assertEquals(0, heap.numTrees());
+        Heap.HeapItem[] items = new Heap.HeapItem[10];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = heap.insert(10 + i, null);
+        }
+        // every insert links the new node below the root
+        assertEquals(9, heap.totalLinks());
+        assertEquals(1, heap.numTrees());
+        heap.deleteMin();
+        // nine children: four pairs, then the last child and four pairs again
+        assertEquals(9 + 4 + 4, heap.totalLinks());
+        heap.decreaseKey(items[9], 0);
+        assertEquals(0, heap.totalCuts());
+        heap.decreaseKey(items[9], 19);
+        assertEquals(1, heap.totalCuts());
+        assertSame(items[9], heap.findMin());
+        assertEquals(0, heap.numMarkedNodes());
+        assertEquals(0, heap.totalHeapifyCosts());
+    }
+}
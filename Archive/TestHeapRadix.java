@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class TestHeapRadix {
+
+    /**
+     * Random monotone operations: every new or decreased key is at least the
+     * last deleted minimum, checked against a PriorityQueue of the keys.
+     */
+    @Test
+    void testRandomMonotoneOps() {
+        Random random = new Random(7);
+        HeapRadix heap = new HeapRadix();
+        PriorityQueue<Integer> truth = new PriorityQueue<>();
+        List<Heap.HeapItem> live = new ArrayList<>();
+        for (int op = 0; op < 50000; op++) {
+            int last = heap.lastKey();
+            int r = random.nextInt(10);
+            if (r < 4 || live.isEmpty()) {
+                int key = last + random.nextInt(1 << random.nextInt(20));
+                live.add(heap.insert(key, null));
+                truth.add(key);
+            } else if (r < 6) {
+                Heap.HeapItem min = heap.findMin();
+                assertEquals(truth.poll(), min.key);
+                live.remove(min);
+                heap.deleteMin();
+                assertEquals(min.key, heap.lastKey());
+            } else if (r < 8) {
+                Heap.HeapItem item = live.get(random.nextInt(live.size()));
+                int diff = random.nextInt(item.key - last + 1);
+                truth.remove(item.key);
+                heap.decreaseKey(item, diff);
+                truth.add(item.key);
+            } else if (r < 9) {
+                Heap.HeapItem item = live.remove(random.nextInt(live.size()));
+                truth.remove(item.key);
+                heap.delete(item);
+            } else {
+                HeapRadix other = new HeapRadix();
+                for (int i = random.nextInt(20); i > 0; i--) {
+                    int key = last + random.nextInt(1000);
+                    live.add(other.insert(key, null));
+                    truth.add(key);
+                }
+                heap.meld(other);
+                assertEquals(0, other.size());
+            }
+            assertEquals(truth.size(), heap.size());
+            if (truth.isEmpty()) {
+                assertNull(heap.findMin());
+            } else {
+                assertEquals(truth.peek(), heap.findMin().key);
+            }
+        }
+        while (!truth.isEmpty()) {
+            assertEquals(truth.poll(), heap.findMin().key);
+            heap.deleteMin();
+        }
+        assertEquals(0, heap.numTrees());
+    }
+
+    @Test
+    void testRejectsNonMonotoneKeys() {
+        HeapRadix heap = new HeapRadix();
+        heap.insert(10, null);
+        Heap.HeapItem x = heap.insert(20, null);
+        heap.deleteMin();
+        assertEquals(10, heap.lastKey());
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(9, null));
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(x, 11));
+        assertEquals(20, x.key);
+        HeapRadix other = new HeapRadix();
+        other.insert(5, null);
+        assertThrows(IllegalArgumentException.class, () -> heap.meld(other));
+        assertEquals(1, other.size());
+        heap.decreaseKey(x, 10);
+        assertSame(x, heap.findMin());
+        heap.insert(10, null);
+        assertEquals(2, heap.size());
+    }
+
+    @Test
+    void testBuckets() {
+        HeapRadix heap = new HeapRadix();
+        for (int key = 0; key < 8; key++) {
+            heap.insert(key, null);
+        }
+        // buckets 0, 1, 2 and 3 hold {0}, {1}, {2,3} and {4..7}
+        assertEquals(4, heap.numTrees());
+        heap.deleteMin();
+        heap.deleteMin();
+        heap.deleteMin();
+        // deleting 2 moves 3 down to bucket 1
+        assertEquals(1, heap.totalHeapifyCosts());
+        heap.deleteMin();
+        // deleting 4 moves 5, 6 and 7 down to buckets 1 and 2
+        heap.deleteMin();
+        assertEquals(4, heap.totalHeapifyCosts());
+        assertEquals(2, heap.numTrees());
+        assertEquals(0, heap.totalLinks());
+    }
+}
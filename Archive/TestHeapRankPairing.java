@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestHeapRankPairing {
+
+    @Test
+    void testRandomOps() {
+        for (boolean type2 : new boolean[] {false, true}) {
+            TestHeapPairing.checkRandomOps(() -> new HeapRankPairing(type2), 4, 20000);
+        }
+    }
+
+    /**
+     * Check the half-order and the rank rule over every half tree, and return the number of nodes.
+     */
+    private static int validate(HeapRankPairing heap) {
+        if (heap.findMin() == null) {
+            return 0;
+        }
+        Heap.HeapNode start = heap.findMin().node;
+        Heap.HeapNode root = start;
+        int nodes = 0;
+        int roots = 0;
+        do {
+            assertNull(root.parent);
+            assertTrue(root.item.key >= heap.findMin().key);
+            assertEquals(rank(root.child) + 1, root.rank);
+            nodes += 1 + validate(root.child, root, root.item.key, heap.type2);
+            roots++;
+            root = root.next;
+        } while (root != start);
+        assertEquals(heap.numTrees(), roots);
+        return nodes;
+    }
+
+    private static int validate(Heap.HeapNode node, Heap.HeapNode parent, int bound, boolean type2) {
+        if (node == null) {
+            return 0;
+        }
+        assertEquals(parent, node.parent);
+        assertTrue(node.item.key >= bound, "half-order");
+        int a = node.rank - rank(node.child);
+        int b = node.rank - rank(node.next);
+        int lo = Math.min(a, b);
+        int hi = Math.max(a, b);
+        boolean ok = (lo == 1 && (hi == 1 || hi == 2)) || (lo == 0 && hi >= 1) || (type2 && lo == 2 && hi == 2);
+        assertTrue(ok, "rank rule: " + a + "," + b);
+        return 1 + validate(node.child, node, node.item.key, type2) + validate(node.next, node, bound, type2);
+    }
+
+    private static int rank(Heap.HeapNode node) {
+        return (node == null) ? -1 : node.rank;
+    }
+
+    @Test
+    void testStructure() {
+        Random random = new Random(5);
+        for (boolean type2 : new boolean[] {false, true}) {
+            HeapRankPairing heap = new HeapRankPairing(type2);
+            List<Heap.HeapItem> live = new ArrayList<>();
+            for (int op = 0; op < 5000; op++) {
+                int r = random.nextInt(10);
+                if (r < 5 || live.isEmpty()) {
+                    live.add(heap.insert(random.nextInt(100000), null));
+                } else if (r < 7) {
+                    live.remove(heap.findMin());
+                    heap.deleteMin();
+                } else if (r < 9) {
+                    Heap.HeapItem item = live.get(random.nextInt(live.size()));
+                    heap.decreaseKey(item, random.nextInt(item.key + 1));
+                } else {
+                    heap.delete(live.remove(random.nextInt(live.size())));
+                }
+                if (op % 50 == 0) {
+                    assertEquals(heap.size(), validate(heap));
+                }
+            }
+            assertEquals(heap.size(), validate(heap));
+        }
+    }
+
+    @Test
+    void testCounters() {
+        HeapRankPairing heap = new HeapRankPairing(false);
+        Heap.HeapItem[] items = new Heap.HeapItem[9];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = heap.insert(10 + i, null);
+        }
+        assertEquals(9, heap.numTrees());
+        assertEquals(0, heap.totalLinks());
+        heap.deleteMin();
+        // one pass over eight single nodes: four links, leaving four roots of rank 1
+        assertEquals(4, heap.totalLinks());
+        assertEquals(4, heap.numTrees());
+        heap.decreaseKey(items[8], 18);
+        assertEquals(1, heap.totalCuts());
+        assertEquals(0, heap.findMin().key);
+        assertEquals(0, heap.numMarkedNodes());
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestHeapRecycling {
+    static final boolean[][] CONFIGS = TestHeapLong.CONFIGS;
+
+    @Test
+    void testDeletedItemsAreReused() {
+        Heap heap = new Heap(true, true, true);
+        Heap.HeapItem a = heap.insert(1, "a");
+        heap.insert(2, "b");
+        heap.deleteMin();
+        assertEquals(1, heap.numRecycled());
+        assertNull(a.info);
+        Heap.HeapItem c = heap.insert(3, "c");
+        assertSame(a, c);
+        assertEquals(3, c.key);
+        assertEquals(0, heap.numRecycled());
+        heap.delete(c);
+        heap.clearRecycled();
+        assertEquals(0, heap.numRecycled());
+        assertEquals(2, heap.findMin().key);
+    }
+
+    @Test
+    void testOffByDefault() {
+        Heap heap = new Heap(true, true);
+        heap.insert(1, "a");
+        heap.deleteMin();
+        assertEquals(0, heap.numRecycled());
+    }
+
+    /**
+     * With and without recycling the heaps make the same links, cuts and heapify swaps.
+     */
+    @Test
+    void testSameCountersAsWithoutRecycling() {
+        for (boolean[] c : CONFIGS) {
+            Random random = new Random(5);
+            Heap plain = new Heap(c[0], c[1]);
+            Heap recycling = new Heap(c[0], c[1], true);
+            List<Heap.HeapItem> plainItems = new ArrayList<>();
+            List<Heap.HeapItem> recyclingItems = new ArrayList<>();
+            for (int op = 0; op < 20000; op++) {
+                int r = random.nextInt(10);
+                if (r < 5 || plainItems.isEmpty()) {
+                    int key = random.nextInt(100000);
+                    plainItems.add(plain.insert(key, "v"));
+                    recyclingItems.add(recycling.insert(key, "v"));
+                } else if (r < 7) {
+                    int i = plainItems.indexOf(plain.findMin());
+                    plain.deleteMin();
+                    recycling.deleteMin();
+                    plainItems.remove(i);
+                    recyclingItems.remove(i);
+                } else if (r < 9) {
+                    int i = random.nextInt(plainItems.size());
+                    int diff = random.nextInt(plainItems.get(i).key + 1);
+                    plain.decreaseKey(plainItems.get(i), diff);
+                    recycling.decreaseKey(recyclingItems.get(i), diff);
+                } else {
+                    int i = random.nextInt(plainItems.size());
+                    plain.delete(plainItems.remove(i));
+                    recycling.delete(recyclingItems.remove(i));
+                }
+                assertEquals(plain.size(), recycling.size());
+                if (plain.size() > 0) {
+                    assertEquals(plain.findMin().key, recycling.findMin().key);
+                }
+                assertEquals(plain.totalLinks(), recycling.totalLinks());
+                assertEquals(plain.totalCuts(), recycling.totalCuts());
+                assertEquals(plain.totalHeapifyCosts(), recycling.totalHeapifyCosts());
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class TestHeapSkipList {
+
+    @Test
+    void testSequential() {
+        HeapSkipList queue = new HeapSkipList();
+        assertNull(queue.deleteMin());
+        HeapSkipList.Item a = queue.insert(10, "a");
+        HeapSkipList.Item b = queue.insert(20, "b");
+        queue.insert(30, "c");
+        assertTrue(queue.decreaseKey(b, 15));
+        assertEquals(5, b.key);
+        assertSame(b, queue.findMin());
+        assertTrue(queue.delete(a));
+        assertFalse(queue.delete(a));
+        assertFalse(queue.decreaseKey(a, 1));
+        assertEquals(2, queue.size());
+        assertSame(b, queue.deleteMin());
+        assertEquals("c", queue.deleteMin().info);
+        assertNull(queue.findMin());
+        assertNull(queue.deleteMin());
+        assertThrows(IllegalArgumentException.class, () -> queue.insert(-1, null));
+        HeapSkipList.Item d = queue.insert(3, null);
+        assertThrows(IllegalArgumentException.class, () -> queue.decreaseKey(d, 4));
+        assertThrows(IllegalArgumentException.class, () -> new HeapSkipList(0));
+    }
+
+    @Test
+    void testRandomOpsAgainstPriorityQueue() {
+        // a small bound offset so that the deleted prefix is cut off often
+        HeapSkipList queue = new HeapSkipList(2);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        List<HeapSkipList.Item> live = new ArrayList<>();
+        Random random = new Random(23);
+        for (int op = 0; op < 200000; op++) {
+            int choice = random.nextInt(10);
+            if (choice < 5 || live.isEmpty()) {
+                int key = random.nextInt(1000);
+                live.add(queue.insert(key, null));
+                expected.add(key);
+            } else if (choice < 7) {
+                HeapSkipList.Item min = queue.deleteMin();
+                assertEquals(expected.poll(), min.key);
+                live.remove(min);
+            } else if (choice < 9) {
+                HeapSkipList.Item item = live.get(random.nextInt(live.size()));
+                int diff = random.nextInt(item.key + 1);
+                expected.remove(item.key);
+                assertTrue(queue.decreaseKey(item, diff));
+                expected.add(item.key);
+            } else {
+                HeapSkipList.Item item = live.remove(random.nextInt(live.size()));
+                expected.remove(item.key);
+                assertTrue(queue.delete(item));
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+        for (Integer key; (key = expected.poll()) != null; ) {
+            assertEquals(key, queue.deleteMin().key);
+        }
+        assertNull(queue.deleteMin());
+    }
+
+    @Test
+    void testConcurrentOperations() throws InterruptedException {
+        int threads = 8, perThread = 10000;
+        HeapSkipList queue = new HeapSkipList(4);
+        ConcurrentLinkedQueue<Integer> out = new ConcurrentLinkedQueue<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // insert base+i with a larger key, then decrease it to base+i
+                    HeapSkipList.Item item = queue.insert(base + i + 1_000_000, null);
+                    if (!queue.decreaseKey(item, 1_000_000)) {
+                        // taken by another thread's deleteMin first: it was counted there
+                        out.add(-1);
+                    }
+                    if (i % 2 == 1) {
+                        HeapSkipList.Item min = queue.deleteMin();
+                        out.add(min.key >= 1_000_000 ? min.key - 1_000_000 : min.key);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * perThread / 2, queue.size());
+        int last = -1;
+        for (HeapSkipList.Item item; (item = queue.deleteMin()) != null; ) {
+            assertTrue(item.key >= last);
+            last = item.key;
+            out.add(item.key);
+        }
+        List<Integer> keys = new ArrayList<>(out);
+        keys.removeIf(key -> key == -1);
+        Collections.sort(keys);
+        assertEquals(threads * perThread, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, keys.get(i));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * BlockingQueueBenchmark
+ *
+ * HeapBlockingQueue against PriorityBlockingQueue, and its delayQueue
+ * against DelayQueue. For each, producers put a fixed number of jobs with
+ * random priorities (random delays of up to a millisecond for the delay
+ * queues) while consumers take them, and the time for all of them is
+ * reported. A last run reprioritises queued jobs: decreaseKey on the heap,
+ * remove and offer on PriorityBlockingQueue.
+ *
+ * Usage: java BlockingQueueBenchmark [producers] [consumers] [jobs]
+ */
+public class BlockingQueueBenchmark {
+
+    private static final int REPEATS = 5;
+
+    /** A job with a priority, smallest first. */
+    static final class Job implements Comparable<Job> {
+        final long priority;
+
+        Job(long priority) {
+            this.priority = priority;
+        }
+
+        public int compareTo(Job o) {
+            return Long.compare(this.priority, o.priority);
+        }
+    }
+
+    /** A job that may run once its deadline (a System.nanoTime()) has passed. */
+    static final class Timer implements Delayed {
+        final long deadline;
+
+        Timer(long delayNanos) {
+            this.deadline = System.nanoTime() + delayNanos;
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        public int compareTo(Delayed o) {
+            return Long.compare(this.deadline, ((Timer) o).deadline);
+        }
+    }
+
+    /**
+     * Return the milliseconds for producers to put jobs elements made by job,
+     * and for consumers to take them all.
+     */
+    private static <E> double run(BlockingQueue<E> queue, Supplier<E> job, int producers, int consumers, int jobs)
+            throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int count = jobs / producers + (p < jobs % producers ? 1 : 0);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    queue.add(job.get());
+                }
+            }));
+        }
+        for (int c = 0; c < consumers; c++) {
+            int count = jobs / consumers + (c < jobs % consumers ? 1 : 0);
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < count; i++) {
+                        queue.take();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static <E> void bench(String name, Supplier<BlockingQueue<E>> queue, Supplier<E> job,
+            int producers, int consumers, int jobs) throws InterruptedException {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < REPEATS; r++) {
+            best = Math.min(best, run(queue.get(), job, producers, consumers, jobs));
+        }
+        System.out.printf("  %-24s %8.1f ms %8.2f Mjobs/s%n", name, best, jobs / best / 1e3);
+    }
+
+    /**
+     * Return the milliseconds to move each of moves random queued jobs of
+     * size queued jobs forward.
+     */
+    private static double reprioritise(boolean heap, int size, int moves) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HeapBlockingQueue<Job> heapQueue = new HeapBlockingQueue<>(job -> job.priority);
+        PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+        List<HeapBlockingQueue.Handle<Job>> items = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Job job = new Job(Long.MAX_VALUE / 2 + random.nextInt(size));
+            if (heap) {
+                items.add(heapQueue.insert(job));
+            } else {
+                queue.add(job);
+                jobs.add(job);
+            }
+        }
+        long start = System.nanoTime();
+        for (int m = 0; m < moves; m++) {
+            int i = random.nextInt(size);
+            if (heap) {
+                HeapBlockingQueue.Handle<Job> item = items.get(i);
+                heapQueue.decreaseKey(item, item.priority() - 1 - random.nextInt(size));
+            } else {
+                Job job = jobs.get(i);
+                queue.remove(job);
+                job = new Job(job.priority - 1 - random.nextInt(size));
+                queue.add(job);
+                jobs.set(i, job);
+            }
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int jobs = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        System.out.printf("===== BlockingQueueBenchmark: %d producers, %d consumers, %d jobs =====%n",
+                producers, consumers, jobs);
+        Supplier<Job> job = () -> new Job(ThreadLocalRandom.current().nextLong());
+        Supplier<Timer> timer = () -> new Timer(ThreadLocalRandom.current().nextLong(1_000_000));
+        System.out.println("priority jobs:");
+        bench("HeapBlockingQueue", () -> new HeapBlockingQueue<Job>(j -> j.priority), job,
+                producers, consumers, jobs);
+        bench("PriorityBlockingQueue", PriorityBlockingQueue::new, job, producers, consumers, jobs);
+        System.out.println("delayed jobs:");
+        bench("HeapBlockingQueue.delay", HeapBlockingQueue::<Timer>delayQueue, timer,
+                producers, consumers, jobs);
+        bench("DelayQueue", DelayQueue::new, timer, producers, consumers, jobs);
+        int size = 20_000, moves = 20_000;
+        System.out.printf("reprioritise %d of %d queued jobs:%n", moves, size);
+        reprioritise(true, size, moves);
+        reprioritise(false, size, moves);
+        System.out.printf("  %-24s %8.1f ms%n", "HeapBlockingQueue", reprioritise(true, size, moves));
+        System.out.printf("  %-24s %8.1f ms%n", "PriorityBlockingQueue", reprioritise(false, size, moves));
+    }
+}
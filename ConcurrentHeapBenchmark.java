@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * ConcurrentHeapBenchmark
+ *
+ * Throughput of the concurrent priority queues built on Heap, and of the
+ * lock-free HeapSkipList, against one Heap behind a lock, from 1 to
+ * maxThreads threads. The queue is filled with PREFILL random keys, and
+ * then every thread repeats an insert of a random key and a deleteMin for
+ * the given time.
+ *
+ * A second table measures producers: the threads only insert, while one
+ * more thread takes the minimum in a loop, which is the load HeapAggregator
+ * is built for. Only the inserts are counted.
+ *
+ * Usage: java ConcurrentHeapBenchmark [maxThreads] [millis]
+ */
+public class ConcurrentHeapBenchmark {
+
+    private static final int PREFILL = 100_000;
+
+    /**
+     * The two operations measured, over any of the queues.
+     */
+    interface Queue {
+        void insert(int key);
+        void deleteMin();
+    }
+
+    /**
+     * One Heap behind a lock, the baseline.
+     */
+    static final class LockedHeap implements Queue {
+        private final Heap heap = new Heap(true, true);
+
+        public synchronized void insert(int key) {
+            heap.insert(key, null);
+        }
+
+        public synchronized void deleteMin() {
+            heap.deleteMin();
+        }
+    }
+
+    static Queue flatCombining() {
+        HeapFlatCombining queue = new HeapFlatCombining(true, true);
+        return new Queue() {
+            public void insert(int key) {
+                queue.insert(key, null);
+            }
+
+            public void deleteMin() {
+                queue.deleteMin();
+            }
+        };
+    }
+
+    static Queue multiQueue(int threads, int c) {
+        HeapMultiQueue queue = HeapMultiQueue.forThreads(threads, c);
+        return new Queue() {
+            public void insert(int key) {
+                queue.insert(key, null);
+            }
+
+            public void deleteMin() {
+                queue.deleteMin();
+            }
+        };
+    }
+
+    static Queue skipList() {
+        HeapSkipList queue = new HeapSkipList();
+        return new Queue() {
+            public void insert(int key) {
+                queue.insert(key, null);
+            }
+
+            public void deleteMin() {
+                queue.deleteMin();
+            }
+        };
+    }
+
+    static Queue aggregator() {
+        HeapAggregator queue = new HeapAggregator(true);
+        return new Queue() {
+            public void insert(int key) {
+                queue.insert(key, null);
+            }
+
+            public void deleteMin() {
+                queue.deleteMin();
+            }
+        };
+    }
+
+    /**
+     * Return the operations per second of threads threads on queue. With
+     * producers set, the threads only insert, and one more thread (not
+     * counted) repeats deleteMin until they are done.
+     */
+    private static double run(Queue queue, int threads, long millis, boolean producers)
+            throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < PREFILL; i++) {
+            queue.insert(random.nextInt(Integer.MAX_VALUE - 1));
+        }
+        long[] ops = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom r = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                long end = deadline[0];
+                while ((count & 255) != 0 || System.nanoTime() < end) {
+                    queue.insert(r.nextInt(Integer.MAX_VALUE - 1));
+                    if (producers) {
+                        count++;
+                    } else {
+                        queue.deleteMin();
+                        count += 2;
+                    }
+                }
+                ops[id] = count;
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        Thread consumer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                queue.deleteMin();
+            }
+        });
+        long begin = System.nanoTime();
+        deadline[0] = begin + millis * 1_000_000L;
+        start.countDown();
+        if (producers) {
+            consumer.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (producers) {
+            consumer.interrupt();
+            consumer.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        long total = 0;
+        for (long count : ops) {
+            total += count;
+        }
+        return total / seconds;
+    }
+
+    private static void bench(String name, IntFunction<Queue> queue, int maxThreads, long millis,
+            boolean producers) throws InterruptedException {
+        StringBuilder line = new StringBuilder(String.format("%-24s", name));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(queue.apply(threads), threads, millis / 4, producers); // warm up
+            double rate = run(queue.apply(threads), threads, millis, producers);
+            line.append(String.format(" %8.2f", rate / 1e6));
+        }
+        System.out.println(line);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        StringBuilder header = new StringBuilder(String.format("%-24s", "Mops/s at threads"));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            header.append(String.format(" %8d", threads));
+        }
+        System.out.println("===== ConcurrentHeapBenchmark =====");
+        System.out.println(header);
+        bench("Heap + lock", threads -> new LockedHeap(), maxThreads, millis, false);
+        bench("HeapFlatCombining", threads -> flatCombining(), maxThreads, millis, false);
+        bench("HeapSkipList", threads -> skipList(), maxThreads, millis, false);
+        bench("HeapMultiQueue c=2", threads -> multiQueue(threads, 2), maxThreads, millis, false);
+        bench("HeapMultiQueue c=4", threads -> multiQueue(threads, 4), maxThreads, millis, false);
+        System.out.println("----- producers, one consumer -----");
+        System.out.println(header);
+        bench("Heap + lock", threads -> new LockedHeap(), maxThreads, millis, true);
+        bench("HeapFlatCombining", threads -> flatCombining(), maxThreads, millis, true);
+        bench("HeapSkipList", threads -> skipList(), maxThreads, millis, true);
+        bench("HeapMultiQueue c=2", threads -> multiQueue(threads, 2), maxThreads, millis, true);
+        bench("HeapAggregator", threads -> aggregator(), maxThreads, millis, true);
+    }
+}
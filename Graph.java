@@ -0,0 +1,243 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Graph
+ *
+ * A directed graph with int edge weights in compressed sparse row form:
+ * the edges leaving v are at indices offsets[v]..offsets[v+1]-1 of targets
+ * and weights. An undirected graph stores each edge in both directions.
+ *
+ * The binary edge-list format read by load and written by save is little
+ * endian ints: n, m, and then m edges as (from, to, weight).
+ *
+ */
+public final class Graph
+{
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final int[] weights;
+
+    private Graph(int n, int[] offsets, int[] targets, int[] weights)
+    {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     *
+     * pre: 0 <= from[i], to[i] < n and weight[i] >= 0 for i < m
+     *
+     * Return the graph of the first m edges (from[i], to[i], weight[i]), in
+     * both directions if undirected is set. The edges are bucketed by source
+     * with a counting sort, in O(n + m).
+     *
+     */
+    public static Graph fromEdges(int n, int[] from, int[] to, int[] weight, int m, boolean undirected)
+    {
+        int arcs = undirected ? 2 * m : m;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("edge " + i + " is not in 0.." + (n - 1));
+            }
+            if (weight[i] < 0) {
+                throw new IllegalArgumentException("edge " + i + " has a negative weight");
+            }
+            offsets[from[i] + 1]++;
+            if (undirected) {
+                offsets[to[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] targets = new int[arcs];
+        int[] weights = new int[arcs];
+        for (int i = 0; i < m; i++) {
+            int e = fill[from[i]]++;
+            targets[e] = to[i];
+            weights[e] = weight[i];
+            if (undirected) {
+                e = fill[to[i]]++;
+                targets[e] = from[i];
+                weights[e] = weight[i];
+            }
+        }
+        return new Graph(n, offsets, targets, weights);
+    }
+
+    /**
+     *
+     * Return the number of (directed) edges.
+     *
+     */
+    public int numEdges()
+    {
+        return this.targets.length;
+    }
+
+    /**
+     *
+     * Read a graph in the binary edge-list format, in both directions if
+     * undirected is set. The file is read through one direct buffer, so
+     * large files are not copied through the Java heap.
+     *
+     */
+    public static Graph load(Path path, boolean undirected) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, buffer, 8);
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            if (n < 0 || m < 0) {
+                throw new IOException("bad header in " + path);
+            }
+            int[] from = new int[m];
+            int[] to = new int[m];
+            int[] weight = new int[m];
+            int perRead = buffer.capacity() / 12;
+            for (int i = 0; i < m; ) {
+                int count = Math.min(perRead, m - i);
+                readFully(channel, buffer, 12 * count);
+                IntBuffer ints = buffer.asIntBuffer();
+                for (int end = i + count; i < end; i++) {
+                    from[i] = ints.get();
+                    to[i] = ints.get();
+                    weight[i] = ints.get();
+                }
+            }
+            return fromEdges(n, from, to, weight, m, undirected);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        buffer.clear().limit(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     *
+     * Write every (directed) edge in the binary edge-list format.
+     * Loading an undirected graph back as directed gives the same graph.
+     *
+     */
+    public void save(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(12 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(this.n).putInt(this.numEdges());
+            for (int v = 0; v < this.n; v++) {
+                for (int e = this.offsets[v]; e < this.offsets[v + 1]; e++) {
+                    if (buffer.remaining() < 12) {
+                        writeFully(channel, buffer);
+                    }
+                    buffer.putInt(v).putInt(this.targets[e]).putInt(this.weights[e]);
+                }
+            }
+            writeFully(channel, buffer);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     *
+     * Return an undirected road-network-like graph: a width x height grid
+     * (vertex x + y*width) with weights in 100..999, where each grid edge is
+     * missing with probability 1/10 and one vertex in 50 also has a diagonal
+     * shortcut. Like road networks it is near planar with degrees of 2 to 5.
+     *
+     */
+    public static Graph roadNetwork(int width, int height, long seed)
+    {
+        Random random = new Random(seed);
+        int n = width * height;
+        int capacity = 3 * n;
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        int[] weight = new int[capacity];
+        int m = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = x + y * width;
+                if (x + 1 < width && random.nextInt(10) != 0) {
+                    from[m] = v; to[m] = v + 1; weight[m++] = 100 + random.nextInt(900);
+                }
+                if (y + 1 < height && random.nextInt(10) != 0) {
+                    from[m] = v; to[m] = v + width; weight[m++] = 100 + random.nextInt(900);
+                }
+                if (x + 1 < width && y + 1 < height && random.nextInt(50) == 0) {
+                    from[m] = v; to[m] = v + width + 1; weight[m++] = 141 + random.nextInt(1270);
+                }
+            }
+        }
+        return fromEdges(n, from, to, weight, m, true);
+    }
+
+    /**
+     *
+     * pre: n > degree >= 1
+     *
+     * Return an undirected power-law graph on n vertices by preferential
+     * attachment (Barabasi-Albert): every vertex after the first degree+1
+     * ones is joined to degree earlier vertices, each picked with probability
+     * proportional to its degree. Weights are in 1..1000.
+     *
+     */
+    public static Graph powerLaw(int n, int degree, long seed)
+    {
+        Random random = new Random(seed);
+        int m = degree * (degree + 1) / 2 + (n - degree - 1) * degree;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        int e = 0;
+        // start from a clique on the first degree+1 vertices
+        for (int v = 0; v <= degree; v++) {
+            for (int u = 0; u < v; u++) {
+                from[e] = v; to[e] = u; weight[e++] = 1 + random.nextInt(1000);
+            }
+        }
+        // a uniform endpoint of a uniform earlier edge is a degree-proportional vertex
+        for (int v = degree + 1; v < n; v++) {
+            int first = e;
+            while (e < first + degree) {
+                int pick = random.nextInt(2 * first);
+                int u = (pick & 1) == 0 ? from[pick >> 1] : to[pick >> 1];
+                boolean repeated = false;
+                for (int k = first; k < e; k++) {
+                    repeated |= to[k] == u;
+                }
+                if (!repeated) {
+                    from[e] = v; to[e] = u; weight[e++] = 1 + random.nextInt(1000);
+                }
+            }
+        }
+        return fromEdges(n, from, to, weight, m, true);
+    }
+}
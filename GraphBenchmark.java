@@ -0,0 +1,62 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * GraphBenchmark
+ *
+ * Dijkstra and Prim from GraphSearch on a road-network-like grid and a
+ * power-law graph of about n vertices (and optionally a graph file in the
+ * binary edge-list format of Graph), run over the four flag combinations
+ * of Heap. Each run is repeated and the fastest time is reported, with the
+ * links and cuts made by the heap.
+ *
+ * Usage: java GraphBenchmark [n] [edge-list file]
+ */
+public class GraphBenchmark {
+
+    private static final boolean[][] CONFIGS = {
+        {true, true}, {false, false}, {true, false}, {false, true}
+    };
+
+    private static final int REPEATS = 5;
+
+    private static void bench(String graphName, Graph g) {
+        System.out.printf("%s: %d vertices, %d edges%n", graphName, g.n, g.numEdges());
+        for (boolean[] c : CONFIGS) {
+            Heap[] heap = new Heap[1];
+            Supplier<Heap> engine = () -> heap[0] = new Heap(c[0], c[1]);
+            long dijkstra = Long.MAX_VALUE;
+            long prim = Long.MAX_VALUE;
+            int dijkstraLinks = 0, dijkstraCuts = 0, primLinks = 0, primCuts = 0;
+            for (int r = 0; r < REPEATS; r++) {
+                long start = System.nanoTime();
+                GraphSearch.dijkstra(g, 0, engine);
+                dijkstra = Math.min(dijkstra, System.nanoTime() - start);
+                dijkstraLinks = heap[0].totalLinks();
+                dijkstraCuts = heap[0].totalCuts();
+                start = System.nanoTime();
+                GraphSearch.prim(g, engine);
+                prim = Math.min(prim, System.nanoTime() - start);
+                primLinks = heap[0].totalLinks();
+                primCuts = heap[0].totalCuts();
+            }
+            String label = "(lazyMelds=" + c[0] + ", lazyDecreaseKeys=" + c[1] + ")";
+            System.out.printf("  dijkstra %-42s %8.1f ms %10d links %10d cuts%n",
+                    label, dijkstra / 1e6, dijkstraLinks, dijkstraCuts);
+            System.out.printf("  prim     %-42s %8.1f ms %10d links %10d cuts%n",
+                    label, prim / 1e6, primLinks, primCuts);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int side = (int) Math.sqrt(n);
+        System.out.println("===== GraphBenchmark n=" + n + " =====");
+        bench("road network " + side + "x" + side, Graph.roadNetwork(side, side, 1));
+        bench("power law, degree 4", Graph.powerLaw(n, 4, 2));
+        if (args.length > 1) {
+            bench(args[1], Graph.load(Path.of(args[1]), true));
+        }
+    }
+}
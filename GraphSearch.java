@@ -0,0 +1,143 @@
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * GraphSearch
+ *
+ * Dijkstra's shortest paths and Prim's minimum spanning forest on a Graph,
+ * with the heap engine given by a Supplier. Each vertex has at most one
+ * item in the heap, and a shorter distance (or lighter edge) found later
+ * is a decreaseKey on that item.
+ *
+ * The tag of a vertex's item holds the vertex number, so that deleteMin
+ * tells which vertex it removed without a map or any allocation beyond the
+ * item itself.
+ *
+ */
+public final class GraphSearch
+{
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private GraphSearch()
+    {
+    }
+
+    /**
+     *
+     * pre: 0 <= source < g.n, and every shortest distance is < UNREACHABLE
+     *
+     * Return the shortest distances from source, UNREACHABLE for vertices
+     * that cannot be reached.
+     *
+     */
+    public static <H extends AddressableHeap<H>> int[] dijkstra(Graph g, int source, Supplier<H> engine)
+    {
+        int[] dist = new int[g.n];
+        Arrays.fill(dist, UNREACHABLE);
+        Heap.HeapItem[] items = new Heap.HeapItem[g.n];
+        boolean[] done = new boolean[g.n];
+        H heap = engine.get();
+        dist[source] = 0;
+        items[source] = insert(heap, 0, source);
+        Heap.HeapItem min;
+        while ((min = heap.findMin()) != null) {
+            int v = min.tag;
+            heap.deleteMin();
+            items[v] = null;
+            done[v] = true;
+            int d = min.key;
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                int u = g.targets[e];
+                int du = d + g.weights[e];
+                if (done[u] || du >= dist[u]) {
+                    continue;
+                }
+                if (items[u] == null) {
+                    items[u] = insert(heap, du, u);
+                } else {
+                    heap.decreaseKey(items[u], dist[u] - du);
+                }
+                dist[u] = du;
+            }
+        }
+        return dist;
+    }
+
+    /**
+     *
+     * pre: g is undirected
+     *
+     * Return a minimum spanning forest as parent links: parent[v] is the other
+     * end of v's tree edge, -1 for the root of each tree.
+     *
+     */
+    public static <H extends AddressableHeap<H>> int[] prim(Graph g, Supplier<H> engine)
+    {
+        int[] parent = new int[g.n];
+        int[] cost = new int[g.n];
+        Arrays.fill(parent, -1);
+        Arrays.fill(cost, UNREACHABLE);
+        Heap.HeapItem[] items = new Heap.HeapItem[g.n];
+        boolean[] done = new boolean[g.n];
+        H heap = engine.get();
+        for (int root = 0; root < g.n; root++) {
+            if (done[root]) {
+                continue;
+            }
+            cost[root] = 0;
+            items[root] = insert(heap, 0, root);
+            Heap.HeapItem min;
+            while ((min = heap.findMin()) != null) {
+                int v = min.tag;
+                heap.deleteMin();
+                items[v] = null;
+                done[v] = true;
+                for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                    int u = g.targets[e];
+                    int w = g.weights[e];
+                    if (done[u] || w >= cost[u]) {
+                        continue;
+                    }
+                    if (items[u] == null) {
+                        items[u] = insert(heap, w, u);
+                    } else {
+                        heap.decreaseKey(items[u], cost[u] - w);
+                    }
+                    cost[u] = w;
+                    parent[u] = v;
+                }
+            }
+        }
+        return parent;
+    }
+
+    /**
+     *
+     * Return the total weight of the forest given by parent links, taking the
+     * lightest edge between each vertex and its parent.
+     *
+     */
+    public static long forestWeight(Graph g, int[] parent)
+    {
+        long total = 0;
+        for (int v = 0; v < g.n; v++) {
+            if (parent[v] < 0) {
+                continue;
+            }
+            int best = UNREACHABLE;
+            for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++) {
+                if (g.targets[e] == parent[v] && g.weights[e] < best) {
+                    best = g.weights[e];
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static Heap.HeapItem insert(AddressableHeap<?> heap, int key, int v) {
+        Heap.HeapItem item = heap.insert(key, null);
+        item.tag = v;
+        return item;
+    }
+}
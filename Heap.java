@@ -1,3 +1,6 @@
+import java.util.Arrays;
+import java.util.Collection;
+
 /**
  * Heap
  *
@@ -6,7 +9,7 @@
  * the possibility of not performing lazy decrease keys.
  *
  */
-public class Heap
+public class Heap implements AddressableHeap<Heap>
 {
     public final boolean lazyMelds;
     public final boolean lazyDecreaseKeys;
@@ -18,6 +21,11 @@ public class Heap
     public int totalCuts;
     public int totalHeapifyCosts;
     public int _numMarkedNodes;
+    private HeapNode[] ranksTable = new HeapNode[0];
+    private HeapNode[] candidates = new HeapNode[0]; // scratch binary heap of roots for pollMany
+    public final boolean recycleNodes;
+    private HeapNode recycled; // deleted nodes, each still holding its item, linked through next
+    private int numRecycled;
     
     /**
      *
@@ -25,9 +33,26 @@ public class Heap
      *
      */
     public Heap(boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        this(lazyMelds, lazyDecreaseKeys, false);
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty heap that may recycle deleted nodes.
+     *
+     * With recycleNodes set, deleteMin and delete keep the removed HeapItem
+     * and HeapNode and insert reuses them instead of allocating. A HeapItem is
+     * then only valid until it is deleted: the same object may be returned
+     * by a later insert for a different key, so callers must drop their
+     * reference to an item once it is deleted.
+     *
+     */
+    public Heap(boolean lazyMelds, boolean lazyDecreaseKeys, boolean recycleNodes)
     {
         this.lazyMelds = lazyMelds;
         this.lazyDecreaseKeys = lazyDecreaseKeys;
+        this.recycleNodes = recycleNodes;
         this.numTrees = 0;
         this.size = 0;
         this.totalLinks = 0;
@@ -52,11 +77,8 @@ public class Heap
             throw new IllegalArgumentException("key must be >= 0");
         }
 
-        HeapItem item = new HeapItem(key, info);
-        HeapNode node = new HeapNode(item);
-        
-        //HeapItem fields
-        item.node = node;
+        HeapItem item = this.newItem(key, info);
+        HeapNode node = item.node;
     
         //Usecase 1: Current heap is empty
         if (this.min == null){ 
@@ -70,17 +92,98 @@ public class Heap
         return item;
         }
 
-        //create a tmp heap and insert according to lazeMelds flag
-        Heap heap2 = new Heap(this.lazyMelds, this.lazyDecreaseKeys);
-        heap2.min = item;
-        heap2.size = 1;
-        heap2.numTrees = 1;
-        this.meld(heap2);
-        syncFirstRoot();
+        //splice the single node into the root list according to lazyMelds flag
+        this.size++;
+        this.addRoot(node);
         return item;
 
     }
 
+    /**
+     * 
+     * pre: keys[i] >= 0, infos == null or infos.length == keys.length
+     *
+     * Insert all (keys[i],infos[i]) into the heap and return the new items, in order.
+     * The new nodes are linked into one root list and spliced in at once, so this is
+     * O(n): with lazy melds they stay single-node trees, otherwise one consolidation
+     * links them into binomial trees, as n separate inserts would.
+     *
+     */
+    public HeapItem[] insertAll(int[] keys, String[] infos)
+    {
+        if (infos != null && infos.length != keys.length) {
+            throw new IllegalArgumentException("keys and infos must have the same length");
+        }
+        for (int key : keys) {
+            if (key < 0) {
+                throw new IllegalArgumentException("key must be >= 0");
+            }
+        }
+        HeapItem[] items = new HeapItem[keys.length];
+        if (keys.length == 0) {
+            return items;
+        }
+
+        // Link the new nodes into a circular list, tracking its minimum
+        HeapItem first = this.newItem(keys[0], infos == null ? null : infos[0]);
+        HeapItem newMin = first;
+        HeapNode last = first.node;
+        items[0] = first;
+        for (int i = 1; i < keys.length; i++) {
+            HeapItem item = this.newItem(keys[i], infos == null ? null : infos[i]);
+            HeapNode node = item.node;
+            last.next = node;
+            node.prev = last;
+            last = node;
+            if (item.key < newMin.key) {
+                newMin = item;
+            }
+            items[i] = item;
+        }
+        last.next = first.node;
+        first.node.prev = last;
+
+        if (this.min == null) {
+            this.min = newMin;
+        } else {
+            appendNodes(this.min.node, last);
+            if (newMin.key < this.min.key) {
+                this.min = newMin;
+            }
+        }
+        this.size += keys.length;
+        this.numTrees += keys.length;
+
+        //If this is not a lazy meld, we need to consolidate
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+        syncFirstRoot();
+        return items;
+    }
+
+    /**
+     * Return a new item (and node) with the given key and info, reusing a
+     * recycled pair when one is available.
+     */
+    private HeapItem newItem(int key, String info) {
+        if (this.recycled != null) {
+            HeapNode node = this.recycled;
+            this.recycled = node.next;
+            this.numRecycled--;
+            node.next = node;
+            node.prev = node;
+            HeapItem item = node.item;
+            item.key = key;
+            item.info = info;
+            item.tag = 0;
+            return item;
+        }
+        HeapItem item = new HeapItem(key, info);
+        item.node = new HeapNode(item);
+        return item;
+    }
+
     /**
      * 
      * Return the minimal HeapNode, null if empty.
@@ -110,6 +213,12 @@ public class Heap
             this.firstRoot = null;
             return;
         }
+
+        // A child promoted by an earlier deleteMin may be a marked root
+        if (isMarked(min_node)) {
+            setMarked(min_node, false);
+            this._numMarkedNodes--;
+        }
         
         // Case 2: heap with only one node
         if (this.size == 1) {
@@ -117,6 +226,7 @@ public class Heap
             this.numTrees = 0;
             this.size = 0;
             this.firstRoot = null;
+            this.recycle(min_node);
             return;
         }
         
@@ -176,6 +286,7 @@ public class Heap
         }
         
         this.size--;
+        this.recycle(min_node);
         
         // Scan root list to find the true minimum before consolidation,
         // so that consolidate() traverses from a deterministic starting point.
@@ -196,6 +307,169 @@ public class Heap
         syncFirstRoot();
     }
 
+    /**
+     *
+     * Delete the min(k, size) minimal items and store them in out[0..], smallest first.
+     * Return the number of items deleted.
+     *
+     * Unlike k calls to deleteMin, the heap is consolidated once, at the end.
+     * In between, the current roots are kept in a binary heap: each step removes
+     * its smallest root and adds that root's children, so a batch costs
+     * O(numTrees + k log(numTrees + k)) plus one consolidation.
+     * The returned items are never recycled, even with recycleNodes.
+     *
+     */
+    public int pollMany(HeapItem[] out, int k)
+    {
+        k = Math.min(Math.min(k, out.length), this.size);
+        if (k <= 0) {
+            return 0;
+        }
+        if (k == this.size) {
+            // Everything goes: no consolidation needed at the end
+            HeapNode[] heap = this.loadCandidates();
+            int n = this.numTrees;
+            for (int i = 0; i < k; i++) {
+                HeapNode x = heap[0];
+                heap[0] = heap[--n];
+                heap[n] = null;
+                siftDown(heap, n, 0);
+                n = this.pushChildren(heap, n, x);
+                heap = this.candidates;
+                out[i] = x.item;
+            }
+            this.min = null;
+            this.numTrees = 0;
+            this.size = 0;
+            this._numMarkedNodes = 0;
+            this.firstRoot = null;
+            return k;
+        }
+
+        HeapNode[] heap = this.loadCandidates();
+        int n = this.numTrees;
+        HeapNode anyRoot = this.min.node;
+        for (int i = 0; i < k; i++) {
+            HeapNode x = heap[0];
+            heap[0] = heap[--n];
+            heap[n] = null;
+            siftDown(heap, n, 0);
+
+            // Remove x from the root list and promote its children to roots
+            HeapNode child = x.child;
+            n = this.pushChildren(heap, n, x);
+            heap = this.candidates;
+            if (x.next == x) {
+                anyRoot = child;
+            } else {
+                anyRoot = x.next;
+                x.prev.next = x.next;
+                x.next.prev = x.prev;
+                if (child != null) {
+                    this.appendNodes(anyRoot, child);
+                }
+            }
+            x.next = x;
+            x.prev = x;
+            x.child = null;
+            if (isMarked(x)) {
+                setMarked(x, false);
+                this._numMarkedNodes--;
+            }
+            this.numTrees = this.numTrees - 1 + x.rank;
+            x.rank = 0;
+            this.size--;
+            out[i] = x.item;
+        }
+        Arrays.fill(heap, 0, n, null);
+
+        this.min = anyRoot.item;
+        this.consolidate();
+        syncFirstRoot();
+        return k;
+    }
+
+    /**
+     *
+     * Delete up to maxItems minimal items and add them to c, smallest first.
+     * Return the number of items deleted. See pollMany.
+     *
+     */
+    public int drainTo(Collection<? super HeapItem> c, int maxItems)
+    {
+        HeapItem[] out = new HeapItem[Math.max(0, Math.min(maxItems, this.size))];
+        int k = this.pollMany(out, out.length);
+        for (int i = 0; i < k; i++) {
+            c.add(out[i]);
+        }
+        return k;
+    }
+
+    /**
+     * Fill the candidates scratch array with the roots, as a binary min-heap on key.
+     */
+    private HeapNode[] loadCandidates() {
+        int n = this.numTrees;
+        if (this.candidates.length < n) {
+            this.candidates = new HeapNode[Math.max(n, 2 * this.candidates.length)];
+        }
+        HeapNode[] heap = this.candidates;
+        HeapNode curr = this.min.node;
+        for (int i = 0; i < n; i++) {
+            heap[i] = curr;
+            curr = curr.next;
+        }
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(heap, n, i);
+        }
+        return heap;
+    }
+
+    /**
+     * Detach the children of x from it and push them onto the candidates heap of size n,
+     * growing this.candidates if needed. Return the new size.
+     */
+    private int pushChildren(HeapNode[] heap, int n, HeapNode x) {
+        HeapNode child = x.child;
+        if (child == null) {
+            return n;
+        }
+        if (heap.length < n + x.rank) {
+            heap = this.candidates = Arrays.copyOf(heap, Math.max(n + x.rank, 2 * heap.length));
+        }
+        HeapNode firstChild = child;
+        do {
+            child.parent = null;
+            int i = n++;
+            while (i > 0 && child.item.key < heap[(i - 1) >>> 1].item.key) {
+                heap[i] = heap[(i - 1) >>> 1];
+                i = (i - 1) >>> 1;
+            }
+            heap[i] = child;
+            child = child.next;
+        } while (child != firstChild);
+        return n;
+    }
+
+    private static void siftDown(HeapNode[] heap, int n, int i) {
+        HeapNode node = heap[i];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= n) {
+                break;
+            }
+            if (c + 1 < n && heap[c + 1].item.key < heap[c].item.key) {
+                c++;
+            }
+            if (heap[c].item.key >= node.item.key) {
+                break;
+            }
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = node;
+    }
+
     /**
      * 
      * pre: 0<=diff<=x.key
@@ -254,59 +528,82 @@ public class Heap
 
 
 
+    /**
+     * Cut node from its parent and keep cutting up the chain of marked ancestors.
+     * The loop is iterative, so long marked chains cannot overflow the stack.
+     * With lazy melds the cut nodes are collected into one circular list that is spliced
+     * into the root list once, in the same order as cutting them one at a time would give.
+     * Without lazy melds every cut is melded (and consolidated) on its own, as before.
+     */
     public void cascadingCut(HeapNode node) {
         if (node.parent == null) {
             return; // Node is a root, no need to cut
         }
 
-        HeapNode parent = node.parent;
+        HeapNode first = node; // the node whose key was decreased, kept as the head of the cut list
+        HeapNode parent;
+        while (true) {
+            parent = node.parent;
 
-        // Remove node from its sibling list
-        node.prev.next = node.next;
-        node.next.prev = node.prev;
+            // Remove node from its sibling list
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
 
-        // Update parent's child pointer if necessary
-        if (parent.child == node) {
-            if (node.next != node) {
-                parent.child = node.next;
+            // Update parent's child pointer if necessary
+            if (parent.child == node) {
+                if (node.next != node) {
+                    parent.child = node.next;
+                } else {
+                    parent.child = null;
+                }
+            }
+
+            parent.rank--;
+
+            node.parent = null;
+            node.next = node;
+            node.prev = node;
+            if (lazyMelds) {
+                // Add node to the cut list, right after the first cut node
+                if (node != first) {
+                    this.appendNodes(first, node);
+                }
+                this.numTrees++;
             } else {
-                parent.child = null;
+                // A non-lazy meld consolidates after every cut, which decides whether the parent is still a root
+                this.addRoot(node); // size is not relevant here, cascading cut doesn't affect size
             }
-        }
 
-        parent.rank--;
+            this.totalCuts++;
 
-        // Meld node into the root list
-        node.parent = null;
-        node.next = node;
-        node.prev = node;
-        Heap tmp_heap2 = new Heap(this.lazyMelds, this.lazyDecreaseKeys);
-        tmp_heap2.min = node.item;
-        tmp_heap2.numTrees = 1;
-        tmp_heap2.size = 0; // size is not relevant here, cascading cut doesn't affect size
-        this.meld(tmp_heap2);
+            // Handle marking
+            if (isMarked(node)) {
+                 setMarked(node, false);// Node is now a root, unmark it
+                 this._numMarkedNodes--; }
 
-        this.totalCuts++;
-        
+            if (parent.parent == null) {
+                break; // Parent is a root, no further action needed
+            }
 
-        // Handle marking
-        if (isMarked(node)) {
-             setMarked(node, false);// Node is now a root, unmark it
-             this._numMarkedNodes--; }
-        
-        if (parent.parent == null) {
-            return; // Parent is a root, no further action needed
-        }
-        
-        if (!isMarked(parent)) {
-            setMarked(parent, true);
-            this._numMarkedNodes++;
-        } else {
-            cascadingCut(parent);
+            if (!isMarked(parent)) {
+                setMarked(parent, true);
+                this._numMarkedNodes++;
+                break;
+            }
+            node = parent;
         }
 
-   
-        return;
+        // Meld the cut list into the root list. Only the first cut node can be smaller than min;
+        // it is then placed first after the old min, otherwise last.
+        if (lazyMelds) {
+            if (first.item.key < this.min.key) {
+                this.appendNodes(this.min.node, first.prev);
+                this.min = first.item;
+            } else {
+                this.appendNodes(this.min.node, first);
+            }
+            syncFirstRoot();
+        }
     }
 
     public void delete(HeapItem x) 
@@ -374,52 +671,75 @@ public class Heap
 
 
     /**
-     * Consolidate function  joins trees of the same rank, leaving only one tree for each rank
+     * Adds a single detached node (next == prev == node) to the root list of
+     * a non-empty heap. Behaves exactly like melding a one-tree heap, but
+     * without allocating one.
      */
-    private void consolidate(){
-        //1: ranks list - needs to be of size(logn) of the current list
-        int n = this.size;
-        // golden ratio for a tighter bound on max degree
-        double phi = (1.0 + Math.sqrt(5.0)) / 2.0;
-        int maxDegree = (int) Math.floor(Math.log(Math.max(1, n)) / Math.log(phi)) + 2;
-        HeapNode[] ranksArray = new HeapNode[maxDegree + 5];
-
-        //Keep a pointer to all of the roots
-        HeapNode[] rootsArray = new HeapNode[this.numTrees];
-        HeapNode curr = this.min.node;
-        for (int i = 0 ; i < rootsArray.length ; i++){
-            rootsArray[i] = curr;
-            curr = curr.next;
+    private void addRoot(HeapNode node) {
+        appendNodes(this.min.node, node);
+        if (node.item.key < this.min.key) {
+            this.min = node.item;
         }
+        this.numTrees++;
 
-        for (HeapNode root : rootsArray) {
-            root.next = root;
-            root.prev = root;
+        //If this is not a lazy meld, we need to consolidate
+        if (!lazyMelds) {
+            this.consolidate();
         }
+        syncFirstRoot();
+    }
+
 
-        //Consolidating, connecting each node in the rootsArray
-        for(HeapNode curr_root : rootsArray){
+    /**
+     * Consolidate function  joins trees of the same rank, leaving only one tree for each rank
+     * The root list is walked in place and the ranks table is reused between calls,
+     * so a consolidation allocates nothing once the table has grown to the heap's size.
+     * HeapLong, HeapGeneric, HeapArrays and HeapOffHeap have copies of this walk over
+     * their own nodes, sized by rankBound: a fix here belongs in them too.
+     */
+    private void consolidate(){
+        if (this.min == null) {
+            return;
+        }
+        //1: ranks table - needs to be of size(logn) of the current list
+        HeapNode[] ranksArray = this.ranksTable(this.size);
+
+        //Walk the roots in place, starting from min. A root is only unlinked from the
+        //list after it was visited, so the saved next pointer is always still a root.
+        int roots = this.numTrees;
+        int maxRank = 0;
+        HeapNode curr_root = this.min.node;
+        for (int i = 0 ; i < roots ; i++){
+            HeapNode next = curr_root.next;
             int curr_rank = curr_root.rank;
             while(ranksArray[curr_rank] != null){
                 HeapNode existing_root = ranksArray[curr_rank];
                 curr_root = this.link(existing_root, curr_root);
                 ranksArray[curr_rank] = null;
-                curr_rank = curr_root.rank; 
+                curr_rank = curr_root.rank;
+                if (curr_rank == ranksArray.length) {
+                    ranksArray = this.growRanksTable(curr_rank);
+                }
             }
             ranksArray[curr_rank] = curr_root;
-            curr_root = curr_root.next;
+            if (curr_rank > maxRank) {
+                maxRank = curr_rank;
+            }
+            curr_root = next;
         }
 
-        //Re-build the roots list
+        //Re-build the roots list in rank order, clearing the table for the next call
         this.min = null;
         this.numTrees = 0;
-        for (HeapNode node : ranksArray){
+        for (int rank = 0 ; rank <= maxRank ; rank++){
+            HeapNode node = ranksArray[rank];
             if (node != null){
+            ranksArray[rank] = null;
             this.numTrees ++;
+            node.next = node;
+            node.prev = node;
             if (this.min == null){
                 this.min = node.item;
-                node.next = node;
-                node.prev = node;
             }
             else {
                 this.appendNodes(this.min.node, node);
@@ -432,6 +752,48 @@ public class Heap
         syncFirstRoot();
     }
 
+    /**
+     * Upper bound on the rank of any node in a heap of size < 2^bits,
+     * floor(log_phi(2^bits)) + 2, indexed by bits.
+     */
+    private static final int[] DEGREE_BOUND = new int[33];
+    static {
+        // golden ratio for a tighter bound on max degree
+        double phi = (1.0 + Math.sqrt(5.0)) / 2.0;
+        for (int bits = 0 ; bits < DEGREE_BOUND.length ; bits++){
+            DEGREE_BOUND[bits] = (int) Math.floor(bits * Math.log(2.0) / Math.log(phi)) + 2;
+        }
+    }
+
+    /**
+     * Return the length of a ranks table that holds every rank possible for n nodes,
+     * with some slack. Also used by the consolidations that copy this one.
+     */
+    static int rankBound(int n) {
+        return DEGREE_BOUND[32 - Integer.numberOfLeadingZeros(n)] + 5;
+    }
+
+    /**
+     * Return the ranks table, grown if needed to hold every rank possible for n nodes.
+     * The table is all null between consolidations.
+     */
+    private HeapNode[] ranksTable(int n) {
+        int bound = rankBound(n);
+        if (this.ranksTable.length < bound) {
+            this.ranksTable = new HeapNode[bound];
+        }
+        return this.ranksTable;
+    }
+
+    /**
+     * Grow the ranks table so that rank is a valid index, keeping its entries.
+     * Only reached when the ranks exceed the bound, e.g. after a meld with a heap of other flags.
+     */
+    private HeapNode[] growRanksTable(int rank) {
+        this.ranksTable = Arrays.copyOf(this.ranksTable, 2 * rank + 1);
+        return this.ranksTable;
+    }
+
 
     /**
      * link two trees of the same rank, moving on tree to be the child of the other
@@ -503,6 +865,45 @@ public class Heap
 
     }
 
+    /**
+     * Keep a deleted node and its item for reuse by insert, when recycling is on.
+     */
+    private void recycle(HeapNode node) {
+        if (!this.recycleNodes) {
+            return;
+        }
+        node.child = null;
+        node.parent = null;
+        node.rank = 0;
+        node.mark = false;
+        node.item.info = null;
+        node.next = this.recycled;
+        node.prev = null;
+        this.recycled = node;
+        this.numRecycled++;
+    }
+
+    /**
+     *
+     * Return the number of deleted nodes kept for reuse.
+     *
+     */
+    public int numRecycled()
+    {
+        return this.numRecycled;
+    }
+
+    /**
+     *
+     * Drop all deleted nodes kept for reuse, e.g. after the heap has shrunk for good.
+     *
+     */
+    public void clearRecycled()
+    {
+        this.recycled = null;
+        this.numRecycled = 0;
+    }
+
     private void syncFirstRoot() {
         this.firstRoot = (this.min != null) ? this.min.node : null;
     }
@@ -615,6 +1016,7 @@ public class Heap
         public HeapNode node;
         public int key;
         public String info;
+        public int tag; // free for the caller, e.g. an index into its own arrays; no heap reads it
         
         public HeapItem(int key, String info) {
             this.key = key;
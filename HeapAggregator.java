@@ -0,0 +1,228 @@
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HeapAggregator
+ *
+ * Many producer threads inserting into one priority queue without sharing
+ * anything: each producer inserts into its own private Heap, and the
+ * consumer absorbs them into its heap with lazy melds, which only splice
+ * root lists, so absorbing is O(1) per producer. Every consumer operation
+ * absorbs first, so findMin and deleteMin see every insert that finished
+ * before they were called, and the minimum they return is exact.
+ *
+ * A producer marks itself busy around each insert by making its state
+ * odd, and the consumer swaps in a fresh heap before melding the old one,
+ * waiting only if the producer was busy during the swap. Producers never
+ * wait.
+ *
+ * A producer that absorb finds empty MAX_IDLE times in a row is unlinked
+ * from the list, so that the producers of threads that are gone (pools,
+ * virtual threads) do not stay reachable. absorb sets its state to REMOVED
+ * with a CAS from the idle state it saw, which fails if an insert happened
+ * meanwhile, and the thread links the producer again on its next insert.
+ *
+ * All the heaps use lazy melds. Items returned by insert belong to the
+ * consumer: only consumer operations (decreaseKey, delete) may be given
+ * them.
+ *
+ */
+public class HeapAggregator
+{
+    private static final int REMOVED = -1;
+
+    private static final int MAX_IDLE = 1024; // absorbs finding a producer empty before it is unlinked
+
+    public final boolean lazyDecreaseKeys;
+    private final Heap heap;
+    private final AtomicReference<Producer> producers = new AtomicReference<>();
+    private final ThreadLocal<Producer> producer = ThreadLocal.withInitial(this::newProducer);
+
+    private static final class Producer
+    {
+        volatile Heap heap;
+        final AtomicInteger state = new AtomicInteger(1); // even when idle, odd while inserting, or REMOVED
+        int idle; // absorbs in a row that found the producer empty
+        Producer next;
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty queue.
+     *
+     */
+    public HeapAggregator(boolean lazyDecreaseKeys)
+    {
+        this.lazyDecreaseKeys = lazyDecreaseKeys;
+        this.heap = new Heap(true, lazyDecreaseKeys);
+    }
+
+    private Producer newProducer() {
+        Producer p = new Producer();
+        p.heap = new Heap(true, this.lazyDecreaseKeys);
+        this.link(p);
+        p.state.set(2);
+        return p;
+    }
+
+    /**
+     * Push p on the producer list. pre: p is busy, and not in the list.
+     */
+    private void link(Producer p) {
+        p.idle = 0;
+        do {
+            p.next = this.producers.get();
+        } while (!this.producers.compareAndSet(p.next, p));
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the calling thread's own heap and return the new item.
+     * Any number of threads may insert at once.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Producer p = this.producer.get();
+        // each insert adds 2 to the state, so that absorb can tell whether one happened
+        int state = p.state.get();
+        if (state == REMOVED || !p.state.compareAndSet(state, state + 1)) {
+            // REMOVED by absorb: no other thread touches p until it is linked again
+            state = 0;
+            p.state.set(1);
+            this.link(p);
+        }
+        try {
+            return p.heap.insert(key, info);
+        } finally {
+            p.state.set(state + 2);
+        }
+    }
+
+    /**
+     *
+     * Meld every producer's heap into the consumer's, and return the number of
+     * items absorbed.
+     *
+     */
+    public synchronized int absorb()
+    {
+        int absorbed = 0;
+        Producer prev = null;
+        for (Producer p = this.producers.get(), next; p != null; p = next) {
+            // read before p can be removed, since its thread then links it again
+            next = p.next;
+            // state is read first: if the producer is idle, its last insert is visible
+            int state = p.state.get();
+            if ((state & 1) == 0 && p.heap.size() == 0) {
+                // the first producer stays, since new ones are pushed in front of it;
+                // the CAS fails if an insert started since state was read
+                if (++p.idle >= MAX_IDLE && prev != null && p.state.compareAndSet(state, REMOVED)) {
+                    prev.next = next;
+                    continue;
+                }
+                prev = p;
+                continue;
+            }
+            p.idle = 0;
+            prev = p;
+            Heap full = p.heap;
+            p.heap = new Heap(true, this.lazyDecreaseKeys);
+            while ((p.state.get() & 1) != 0) {
+                Thread.onSpinWait();
+            }
+            absorbed += full.size();
+            this.heap.meld(full);
+        }
+        return absorbed;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public synchronized Heap.HeapItem findMin()
+    {
+        this.absorb();
+        return this.heap.findMin();
+    }
+
+    /**
+     *
+     * Delete the minimal item and return it, null if empty.
+     *
+     */
+    public synchronized Heap.HeapItem deleteMin()
+    {
+        this.absorb();
+        Heap.HeapItem min = this.heap.findMin();
+        this.heap.deleteMin();
+        return min;
+    }
+
+    /**
+     *
+     * Delete up to maxItems minimal items and add them to c, smallest first.
+     * Return the number of items deleted.
+     *
+     */
+    public synchronized int drainTo(Collection<? super Heap.HeapItem> c, int maxItems)
+    {
+        this.absorb();
+        return this.heap.drainTo(c, maxItems);
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key, x is in the queue
+     *
+     * Decrease the key of x by diff.
+     *
+     */
+    public synchronized void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        this.absorb();
+        this.heap.decreaseKey(x, diff);
+    }
+
+    /**
+     *
+     * pre: x is in the queue
+     *
+     * Delete x from the queue.
+     *
+     */
+    public synchronized void delete(Heap.HeapItem x)
+    {
+        this.absorb();
+        this.heap.delete(x);
+    }
+
+    /**
+     *
+     * Return the number of items absorbed by the consumer and not yet deleted.
+     *
+     */
+    public synchronized int size()
+    {
+        return this.heap.size();
+    }
+
+    /**
+     * Return the number of producers in the list, for tests.
+     */
+    synchronized int numProducers() {
+        int n = 0;
+        for (Producer p = this.producers.get(); p != null; p = p.next) {
+            n++;
+        }
+        return n;
+    }
+}
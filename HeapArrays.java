@@ -0,0 +1,673 @@
+import java.util.Arrays;
+
+/**
+ * HeapArrays
+ *
+ * The Fibonacci heap of Heap, with the same lazyMelds / lazyDecreaseKeys
+ * flags and counters, stored as a struct of arrays. Every node is a slot
+ * in parallel int arrays (key, parent, child, next, prev), with its rank in
+ * a byte array and its mark in a bit set, so an element costs about 21
+ * bytes and no objects. Links are slot numbers, NIL is -1.
+ *
+ * Items are identified by int handles returned from insert. With lazy
+ * decrease keys an item never leaves its slot and the handle is the slot.
+ * heapify_up moves items between slots, so without lazy decrease keys two
+ * more int arrays map handles to slots and back.
+ *
+ * A handle is valid from insert until its item is deleted; after that the
+ * handle (and slot) may be given to a later insert. Keys are ints >= 0 as
+ * in Heap; there is no info string, callers keep their payload in their own
+ * arrays indexed by handle.
+ *
+ */
+public class HeapArrays
+{
+    public static final int NIL = -1;
+
+    public final boolean lazyMelds;
+    public final boolean lazyDecreaseKeys;
+    private int[] key;
+    private int[] parent;
+    private int[] child;
+    private int[] next;
+    private int[] prev;
+    private byte[] rank;
+    private long[] marks;
+    private int[] slotOf;    // handle -> slot, only without lazy decrease keys
+    private int[] handleOf;  // slot -> handle, only without lazy decrease keys
+    private int used;        // slots [0, used) have been handed out at least once
+    private int freeSlot = NIL;    // free slots, linked through next
+    private int freeHandle = NIL;  // free handles, linked through slotOf
+    private int min = NIL;
+    private int numTrees;
+    private int size;
+    private int totalLinks;
+    private int totalCuts;
+    private int totalHeapifyCosts;
+    private int _numMarkedNodes;
+    private int[] ranksTable = new int[0];
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapArrays(boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        this(lazyMelds, lazyDecreaseKeys, 16);
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty heap with room for capacity items.
+     *
+     */
+    public HeapArrays(boolean lazyMelds, boolean lazyDecreaseKeys, int capacity)
+    {
+        this.lazyMelds = lazyMelds;
+        this.lazyDecreaseKeys = lazyDecreaseKeys;
+        capacity = Math.max(capacity, 1);
+        this.key = new int[capacity];
+        this.parent = new int[capacity];
+        this.child = new int[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.rank = new byte[capacity];
+        this.marks = new long[(capacity + 63) >>> 6];
+        if (!lazyDecreaseKeys) {
+            this.slotOf = new int[capacity];
+            this.handleOf = new int[capacity];
+        }
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert key into the heap and return the handle of the new item.
+     *
+     */
+    public int insert(int key)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        int s = this.allocate();
+        this.key[s] = key;
+        this.parent[s] = NIL;
+        this.child[s] = NIL;
+        this.next[s] = s;
+        this.prev[s] = s;
+        this.rank[s] = 0;
+        int h = s;
+        if (this.slotOf != null) {
+            if (this.freeHandle != NIL) {
+                h = this.freeHandle;
+                this.freeHandle = this.slotOf[h];
+            }
+            this.slotOf[h] = s;
+            this.handleOf[s] = h;
+        }
+
+        this.size++;
+        if (this.min == NIL) {
+            this.min = s;
+            this.numTrees = 1;
+            return h;
+        }
+        this.addRoot(s);
+        return h;
+    }
+
+    /**
+     *
+     * Return the handle of the minimal item, NIL if empty.
+     *
+     */
+    public int findMin()
+    {
+        return this.min == NIL ? NIL : this.handle(this.min);
+    }
+
+    /**
+     *
+     * Return the key of the item with handle h.
+     *
+     */
+    public int key(int h)
+    {
+        return this.key[this.slot(h)];
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        int m = this.min;
+        if (m == NIL) {
+            return;
+        }
+        // A child promoted by an earlier deleteMin may be a marked root
+        if (this.isMarked(m)) {
+            this.setMarked(m, false);
+            this._numMarkedNodes--;
+        }
+        if (this.size == 1) {
+            this.release(m);
+            this.min = NIL;
+            this.numTrees = 0;
+            this.size = 0;
+            return;
+        }
+
+        // Promote the children of min to roots
+        int c = this.child[m];
+        if (c != NIL) {
+            int s = c;
+            do {
+                this.parent[s] = NIL;
+                s = this.next[s];
+            } while (s != c);
+        }
+
+        if (this.next[m] == m) {
+            this.min = c;
+            this.numTrees = this.rank[m];
+        } else {
+            int someRoot = this.next[m];
+            this.next[this.prev[m]] = this.next[m];
+            this.prev[this.next[m]] = this.prev[m];
+            if (c != NIL) {
+                this.appendNodes(someRoot, c);
+            }
+            this.numTrees = this.numTrees - 1 + this.rank[m];
+            this.min = someRoot;
+        }
+        this.release(m);
+        this.size--;
+
+        // Scan root list to find the true minimum before consolidation
+        int start = this.min;
+        int s = start;
+        do {
+            if (this.key[s] < this.key[this.min]) {
+                this.min = s;
+            }
+            s = this.next[s];
+        } while (s != start);
+
+        this.consolidate();
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=key(h)
+     *
+     * Decrease the key of the item with handle h by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(int h, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        int s = this.slot(h);
+        this.key[s] -= diff;
+        int p = this.parent[s];
+        if (p != NIL && this.key[s] < this.key[p]) {
+            if (lazyDecreaseKeys) {
+                this.cascadingCut(s, false);
+            } else {
+                s = this.heapify_up(s, false);
+            }
+        }
+        if (this.key[s] < this.key[this.min]) {
+            this.min = s;
+        }
+    }
+
+    /**
+     *
+     * Delete the item with handle h from the heap.
+     *
+     */
+    public void delete(int h)
+    {
+        // Bring the item to the root list as if its key were negative infinity
+        int s = this.slot(h);
+        if (this.parent[s] != NIL) {
+            if (lazyDecreaseKeys) {
+                this.cascadingCut(s, true);
+            } else {
+                s = this.heapify_up(s, true);
+            }
+        }
+        this.min = s;
+        this.deleteMin();
+    }
+
+    /**
+     * Swap the item in slot s with its parent's while it is smaller, or all the
+     * way to the root when toRoot is set. Return the slot the item ends up in.
+     */
+    private int heapify_up(int s, boolean toRoot) {
+        int p = this.parent[s];
+        while (p != NIL && (toRoot || this.key[s] < this.key[p])) {
+            int k = this.key[s];
+            this.key[s] = this.key[p];
+            this.key[p] = k;
+            int h = this.handleOf[s];
+            this.handleOf[s] = this.handleOf[p];
+            this.handleOf[p] = h;
+            this.slotOf[this.handleOf[s]] = s;
+            this.slotOf[h] = p;
+
+            s = p;
+            p = this.parent[s];
+            this.totalHeapifyCosts++;
+        }
+        return s;
+    }
+
+    /**
+     * Cut slot s from its parent and keep cutting up the chain of marked ancestors,
+     * iteratively, as in Heap. When deleting, s is about to become the min and be
+     * removed, so the cuts are spliced at once without consolidating.
+     */
+    private void cascadingCut(int s, boolean deleting) {
+        boolean batch = lazyMelds || deleting;
+        int first = s;
+        while (true) {
+            int p = this.parent[s];
+
+            this.next[this.prev[s]] = this.next[s];
+            this.prev[this.next[s]] = this.prev[s];
+            if (this.child[p] == s) {
+                this.child[p] = (this.next[s] != s) ? this.next[s] : NIL;
+            }
+            this.rank[p]--;
+
+            this.parent[s] = NIL;
+            this.next[s] = s;
+            this.prev[s] = s;
+            if (batch) {
+                if (s != first) {
+                    this.appendNodes(first, s);
+                }
+                this.numTrees++;
+            } else {
+                this.addRoot(s);
+            }
+            this.totalCuts++;
+
+            if (this.isMarked(s)) {
+                this.setMarked(s, false);
+                this._numMarkedNodes--;
+            }
+
+            if (this.parent[p] == NIL) {
+                break;
+            }
+            if (!this.isMarked(p)) {
+                this.setMarked(p, true);
+                this._numMarkedNodes++;
+                break;
+            }
+            s = p;
+        }
+
+        if (batch) {
+            if (deleting || this.key[first] < this.key[this.min]) {
+                this.appendNodes(this.min, this.prev[first]);
+                this.min = first;
+            } else {
+                this.appendNodes(this.min, first);
+            }
+        }
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, which is left empty.
+     * The items of heap2 are copied into this heap's arrays: a handle h of
+     * heap2 becomes h + offset in this heap, where offset is returned.
+     * pre: heap2.lazyMelds = this.lazyMelds AND heap2.lazyDecreaseKeys = this.lazyDecreaseKeys
+     *
+     */
+    public int meld(HeapArrays heap2)
+    {
+        int offset = this.used;
+        if (heap2 == null || heap2.used == 0) {
+            return offset;
+        }
+        int n = heap2.used;
+        this.ensureCapacity(offset + n);
+        copyShifted(heap2.parent, this.parent, offset, n);
+        copyShifted(heap2.child, this.child, offset, n);
+        copyShifted(heap2.next, this.next, offset, n);
+        copyShifted(heap2.prev, this.prev, offset, n);
+        System.arraycopy(heap2.key, 0, this.key, offset, n);
+        System.arraycopy(heap2.rank, 0, this.rank, offset, n);
+        for (int s = 0; s < n; s++) {
+            this.setMarked(offset + s, heap2.isMarked(s));
+        }
+        if (this.slotOf != null) {
+            copyShifted(heap2.slotOf, this.slotOf, offset, n);
+            copyShifted(heap2.handleOf, this.handleOf, offset, n);
+        }
+        this.used = offset + n;
+
+        // Chain heap2's free lists in front of ours
+        if (heap2.freeSlot != NIL) {
+            int s = heap2.freeSlot + offset;
+            while (this.next[s] != NIL) {
+                s = this.next[s];
+            }
+            this.next[s] = this.freeSlot;
+            this.freeSlot = heap2.freeSlot + offset;
+        }
+        if (heap2.freeHandle != NIL) {
+            int h = heap2.freeHandle + offset;
+            while (this.slotOf[h] != NIL) {
+                h = this.slotOf[h];
+            }
+            this.slotOf[h] = this.freeHandle;
+            this.freeHandle = heap2.freeHandle + offset;
+        }
+
+        int min2 = heap2.min == NIL ? NIL : heap2.min + offset;
+        if (min2 != NIL) {
+            if (this.min == NIL) {
+                this.min = min2;
+                this.numTrees = heap2.numTrees;
+            } else {
+                this.appendNodes(this.min, min2);
+                if (this.key[min2] < this.key[this.min]) {
+                    this.min = min2;
+                }
+                this.numTrees += heap2.numTrees;
+            }
+        }
+        this.size += heap2.size;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        this._numMarkedNodes += heap2._numMarkedNodes;
+        heap2.clear();
+
+        if (!lazyMelds && this.min != NIL) {
+            this.consolidate();
+        }
+        return offset;
+    }
+
+    private static void copyShifted(int[] from, int[] to, int offset, int n) {
+        for (int i = 0; i < n; i++) {
+            int v = from[i];
+            to[offset + i] = v == NIL ? NIL : v + offset;
+        }
+    }
+
+    /**
+     * Forget all items and counters, keeping the allocated arrays.
+     */
+    private void clear() {
+        this.used = 0;
+        this.freeSlot = NIL;
+        this.freeHandle = NIL;
+        this.min = NIL;
+        this.numTrees = 0;
+        this.size = 0;
+        this.totalLinks = 0;
+        this.totalCuts = 0;
+        this.totalHeapifyCosts = 0;
+        this._numMarkedNodes = 0;
+        Arrays.fill(this.marks, 0L);
+    }
+
+    /**
+     * Adds the detached slot s to the root list of a non-empty heap,
+     * consolidating when melds are not lazy.
+     */
+    private void addRoot(int s) {
+        this.appendNodes(this.min, s);
+        if (this.key[s] < this.key[this.min]) {
+            this.min = s;
+        }
+        this.numTrees++;
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+    }
+
+    /**
+     * Consolidate function joins trees of the same rank, leaving only one tree for each rank.
+     * A copy of Heap.consolidate() over this class's nodes: a fix to one belongs in both.
+     */
+    private void consolidate() {
+        int[] ranksArray = this.ranksTable;
+        int bound = Heap.rankBound(this.size);
+        if (ranksArray.length < bound) {
+            ranksArray = this.ranksTable = new int[bound];
+            Arrays.fill(ranksArray, NIL);
+        }
+
+        int roots = this.numTrees;
+        int maxRank = 0;
+        int curr = this.min;
+        for (int i = 0; i < roots; i++) {
+            int nextRoot = this.next[curr];
+            int r = this.rank[curr];
+            while (ranksArray[r] != NIL) {
+                curr = this.link(ranksArray[r], curr);
+                ranksArray[r] = NIL;
+                r = this.rank[curr];
+                if (r == ranksArray.length) {
+                    ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * r + 1);
+                    Arrays.fill(ranksArray, r, ranksArray.length, NIL);
+                }
+            }
+            ranksArray[r] = curr;
+            if (r > maxRank) {
+                maxRank = r;
+            }
+            curr = nextRoot;
+        }
+
+        this.min = NIL;
+        this.numTrees = 0;
+        for (int r = 0; r <= maxRank; r++) {
+            int s = ranksArray[r];
+            if (s != NIL) {
+                ranksArray[r] = NIL;
+                this.numTrees++;
+                this.next[s] = s;
+                this.prev[s] = s;
+                if (this.min == NIL) {
+                    this.min = s;
+                } else {
+                    this.appendNodes(this.min, s);
+                    if (this.key[s] < this.key[this.min]) {
+                        this.min = s;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * link two trees of the same rank, moving on tree to be the child of the other
+     */
+    private int link(int s1, int s2) {
+        int p, c;
+        if (this.key[s1] < this.key[s2]) {
+            p = s1;
+            c = s2;
+        } else {
+            p = s2;
+            c = s1;
+        }
+        this.next[this.prev[c]] = this.next[c];
+        this.prev[this.next[c]] = this.prev[c];
+        this.next[c] = c;
+        this.prev[c] = c;
+
+        if (this.isMarked(c)) {
+            this.setMarked(c, false);
+            this._numMarkedNodes--;
+        }
+
+        this.parent[c] = p;
+        if (this.child[p] == NIL) {
+            this.child[p] = c;
+        } else {
+            this.appendNodes(this.child[p], c);
+        }
+        this.rank[p]++;
+        this.numTrees--;
+        this.totalLinks++;
+        return p;
+    }
+
+    /**
+     * Splice the circular list of s2 into the circular list of s1, right after s1.
+     */
+    private void appendNodes(int s1, int s2) {
+        int next1 = this.next[s1];
+        int next2 = this.next[s2];
+        this.next[s1] = next2;
+        this.prev[next2] = s1;
+        this.next[s2] = next1;
+        this.prev[next1] = s2;
+    }
+
+    private int slot(int h) {
+        return this.slotOf == null ? h : this.slotOf[h];
+    }
+
+    private int handle(int s) {
+        return this.handleOf == null ? s : this.handleOf[s];
+    }
+
+    private boolean isMarked(int s) {
+        return (this.marks[s >>> 6] & (1L << s)) != 0;
+    }
+
+    private void setMarked(int s, boolean value) {
+        if (value) {
+            this.marks[s >>> 6] |= 1L << s;
+        } else {
+            this.marks[s >>> 6] &= ~(1L << s);
+        }
+    }
+
+    /**
+     * Return a free slot, growing the arrays if needed.
+     */
+    private int allocate() {
+        int s = this.freeSlot;
+        if (s != NIL) {
+            this.freeSlot = this.next[s];
+            return s;
+        }
+        this.ensureCapacity(this.used + 1);
+        return this.used++;
+    }
+
+    /**
+     * Put slot s (and the handle of its item) on the free lists.
+     */
+    private void release(int s) {
+        this.setMarked(s, false);
+        this.child[s] = NIL;
+        this.next[s] = this.freeSlot;
+        this.freeSlot = s;
+        if (this.slotOf != null) {
+            int h = this.handleOf[s];
+            this.slotOf[h] = this.freeHandle;
+            this.freeHandle = h;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = this.key.length;
+        if (capacity <= length) {
+            return;
+        }
+        int newLength = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, length + (length >> 1) + 1L));
+        this.key = Arrays.copyOf(this.key, newLength);
+        this.parent = Arrays.copyOf(this.parent, newLength);
+        this.child = Arrays.copyOf(this.child, newLength);
+        this.next = Arrays.copyOf(this.next, newLength);
+        this.prev = Arrays.copyOf(this.prev, newLength);
+        this.rank = Arrays.copyOf(this.rank, newLength);
+        this.marks = Arrays.copyOf(this.marks, (newLength + 63) >>> 6);
+        if (this.slotOf != null) {
+            this.slotOf = Arrays.copyOf(this.slotOf, newLength);
+            this.handleOf = Arrays.copyOf(this.handleOf, newLength);
+        }
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numTrees;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return this._numMarkedNodes;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total heapify costs.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+}
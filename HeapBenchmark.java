@@ -0,0 +1,493 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * HeapBenchmark
+ *
+ * Ad-hoc micro benchmarks for Heap, run over the four flag combinations.
+ * Allocation is measured with the per-thread allocation counter of the JVM,
+ * so numbers are bytes allocated by the calling thread per operation.
+ *
+ * Usage: java HeapBenchmark [n]
+ */
+public class HeapBenchmark {
+
+    private static final boolean[][] CONFIGS = {
+        {true, true}, {false, false}, {true, false}, {false, true}
+    };
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static String label(boolean lm, boolean ld) {
+        return "(lazyMelds=" + lm + ", lazyDecreaseKeys=" + ld + ")";
+    }
+
+    private static boolean quiet = false;
+
+    private static void report(String name, boolean lm, boolean ld, int ops, long bytes, long nanos) {
+        report(name, label(lm, ld), ops, bytes, nanos);
+    }
+
+    private static void report(String name, String label, int ops, long bytes, long nanos) {
+        if (quiet) return;
+        System.out.printf("%-30s %-42s %10.1f B/op %10.1f ns/op%n",
+                name, label, (double) bytes / ops, (double) nanos / ops);
+    }
+
+    // ===== BENCHMARKS =====
+
+    /**
+     * Inserts n keys into a non-empty heap. The floor is one HeapItem and
+     * one HeapNode per insert.
+     */
+    private static void benchInsert(boolean lm, boolean ld, int n) {
+        Heap h = new Heap(lm, ld);
+        h.insert(0, null);
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 1; i <= n; i++) {
+            h.insert(i, null);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report("insert", lm, ld, n, bytes, nanos);
+    }
+
+    /**
+     * Melds n/64 heaps of 64 keys each into one heap. Without lazy melds every
+     * meld consolidates the joined root list.
+     */
+    private static void benchMeld(boolean lm, boolean ld, int n) {
+        int parts = Math.max(n / 64, 1);
+        Heap[] heaps = new Heap[parts];
+        for (int p = 0; p < parts; p++) {
+            heaps[p] = new Heap(lm, ld);
+            for (int i = 0; i < 64; i++) {
+                heaps[p].insert(i * parts + p, null);
+            }
+        }
+        Heap h = new Heap(lm, ld);
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int p = 0; p < parts; p++) {
+            h.meld(heaps[p]);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report("meld(64 keys)", lm, ld, parts, bytes, nanos);
+    }
+
+    /**
+     * Builds a consolidated heap, then decreases every key below all of the
+     * original keys so that each decreaseKey of a non-root performs at least
+     * one cut (or heapify_up when decrease keys are not lazy).
+     */
+    private static void benchDecreaseKey(boolean lm, boolean ld, int n) {
+        Heap h = new Heap(lm, ld);
+        Heap.HeapItem[] items = new Heap.HeapItem[n + 1];
+        for (int i = 0; i <= n; i++) {
+            items[i] = h.insert(2 * n + i, null);
+        }
+        h.deleteMin();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = n; i >= 1; i--) {
+            h.decreaseKey(items[i], items[i].key - (n - i));
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report("decreaseKey", lm, ld, n, bytes, nanos);
+    }
+
+    /**
+     * Fills the heap with n keys, then measures n/2 deleteMins. The first
+     * deleteMin consolidates all n lazy roots, the rest are steady state.
+     */
+    private static void benchDeleteMin(boolean lm, boolean ld, int n) {
+        Heap h = new Heap(lm, ld);
+        for (int i = 0; i < n; i++) {
+            h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        int ops = n / 2;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            h.deleteMin();
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report("deleteMin", lm, ld, ops, bytes, nanos);
+    }
+
+    /**
+     * Builds a single path root - c1 - ... - ck through the public fields,
+     * with c1..c(k-1) marked, so that decreasing the key of ck cascades
+     * through all k levels. This shape is reachable through the public API
+     * but takes O(k) rounds of operations to produce. The chain is built in
+     * a scratch heap and melded into the empty h, so h sees a root of rank 1.
+     */
+    private static Heap.HeapItem buildMarkedChain(Heap h, int k) {
+        Heap chain = new Heap(h.lazyMelds, h.lazyDecreaseKeys);
+        Heap.HeapItem root = new Heap.HeapItem(0, null);
+        root.node = new Heap.HeapNode(root);
+        chain.min = root;
+        chain.numTrees = 1;
+        chain.size = 1;
+        Heap.HeapNode parent = root.node;
+        Heap.HeapItem leaf = root;
+        for (int i = 1; i <= k; i++) {
+            leaf = new Heap.HeapItem(i, null);
+            Heap.HeapNode node = new Heap.HeapNode(leaf);
+            leaf.node = node;
+            node.parent = parent;
+            parent.child = node;
+            parent.rank = 1;
+            if (i < k) {
+                node.mark = true;
+                chain._numMarkedNodes++;
+            }
+            parent = node;
+        }
+        chain.size += k;
+        h.meld(chain);
+        return leaf;
+    }
+
+    /**
+     * One decreaseKey at the bottom of a marked chain of length k, which
+     * performs k cuts. The new key stays above the root's, so the root is
+     * never linked below a cut tree (and marked) without lazy melds.
+     */
+    private static void benchCascadingCut(boolean lm, boolean ld, int k) {
+        Heap h = new Heap(lm, ld);
+        Heap.HeapItem leaf = buildMarkedChain(h, k);
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        h.decreaseKey(leaf, leaf.key - 1);
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        if (h.totalCuts() != k || h.numMarkedNodes() != 0) {
+            throw new IllegalStateException("chain of " + k + " gave " + h.totalCuts() + " cuts");
+        }
+        report("cascadingCut/cut k=" + k, lm, ld, k, bytes, nanos);
+    }
+
+    /**
+     * n inserts of pseudo random keys followed by n deleteMins, on Heap and
+     * on the HeapGeneric variants with the same flags.
+     */
+    private static void benchGeneric(boolean lm, boolean ld, int n) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        Heap h = new Heap(lm, ld);
+        for (int i = 0; i < n; i++) {
+            h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        for (int i = 0; i < n; i++) {
+            h.deleteMin();
+        }
+        report("sort/Heap", lm, ld, n, allocatedBytes() - bytes, System.nanoTime() - start);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        HeapGeneric<Integer, String> p = HeapGeneric.intMinHeap(lm, ld);
+        for (int i = 0; i < n; i++) {
+            p.insertLong((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        for (int i = 0; i < n; i++) {
+            p.deleteMin();
+        }
+        report("sort/HeapGeneric int", lm, ld, n, allocatedBytes() - bytes, System.nanoTime() - start);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        HeapGeneric<Integer, String> g = new HeapGeneric<>(lm, ld, Integer::compare);
+        for (int i = 0; i < n; i++) {
+            g.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        for (int i = 0; i < n; i++) {
+            g.deleteMin();
+        }
+        report("sort/HeapGeneric cmp", lm, ld, n, allocatedBytes() - bytes, System.nanoTime() - start);
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * Retained Java heap bytes per element and drain time of Heap against
+     * the struct-of-arrays HeapArrays and HeapOffHeap with the same flags.
+     */
+    private static void benchArrays(boolean lm, boolean ld, int n) {
+        long before = usedMemory();
+        Heap h = new Heap(lm, ld);
+        for (int i = 0; i < n; i++) {
+            h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        h.deleteMin();
+        long retained = usedMemory() - before;
+        long start = System.nanoTime();
+        for (int i = 1; i < n; i++) {
+            h.deleteMin();
+        }
+        report("retained+drain/Heap", lm, ld, n, retained, System.nanoTime() - start);
+        h = null;
+
+        before = usedMemory();
+        HeapArrays a = new HeapArrays(lm, ld, n);
+        for (int i = 0; i < n; i++) {
+            a.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE));
+        }
+        a.deleteMin();
+        retained = usedMemory() - before;
+        start = System.nanoTime();
+        for (int i = 1; i < n; i++) {
+            a.deleteMin();
+        }
+        report("retained+drain/HeapArrays", lm, ld, n, retained, System.nanoTime() - start);
+        a = null;
+
+        // Java heap bytes only: the nodes themselves live in native memory
+        before = usedMemory();
+        try (HeapOffHeap o = new HeapOffHeap(lm, ld)) {
+            for (int i = 0; i < n; i++) {
+                o.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE));
+            }
+            o.deleteMin();
+            retained = usedMemory() - before;
+            start = System.nanoTime();
+            for (int i = 1; i < n; i++) {
+                o.deleteMin();
+            }
+            report("retained+drain/HeapOffHeap", lm, ld, n, retained, System.nanoTime() - start);
+        }
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Steady-state churn at constant size n: each op is a deleteMin and an
+     * insert, with and without node recycling.
+     */
+    private static void benchChurn(boolean lm, boolean ld, int n, boolean recycle) {
+        Heap h = new Heap(lm, ld, recycle);
+        for (int i = 0; i < n; i++) {
+            h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        int ops = 4 * n;
+        long gc = gcMillis();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = n; i < n + ops; i++) {
+            h.deleteMin();
+            h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report(recycle ? "churn/recycling" : "churn", lm, ld, ops, bytes, nanos);
+        if (!quiet) {
+            System.out.println("    gc time " + (gcMillis() - gc) + " ms");
+        }
+    }
+
+    /**
+     * A Dijkstra-like load through the AddressableHeap interface: n keys, then
+     * until empty, a deleteMin followed by up to 4 decreaseKeys of live items
+     * to a key between the current min and their own. Each op is one deleteMin
+     * or decreaseKey. Deleted items are told apart by a null info.
+     */
+    private static <H extends AddressableHeap<H>> void benchEngine(String label, Supplier<H> engine, int n) {
+        H h = engine.get();
+        Heap.HeapItem[] items = new Heap.HeapItem[n];
+        for (int i = 0; i < n; i++) {
+            items[i] = h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), "");
+        }
+        int ops = 0;
+        int next = 0;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        while (h.size() > 0) {
+            Heap.HeapItem min = h.findMin();
+            int minKey = min.key;
+            min.info = null;
+            h.deleteMin();
+            ops++;
+            for (int j = 0; j < 4; j++) {
+                next = (int) ((next + 2654435761L) % n);
+                Heap.HeapItem x = items[next];
+                if (x.info != null) {
+                    h.decreaseKey(x, (x.key - minKey) / 2);
+                    ops++;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        report("dijkstra-like", label, ops, bytes, nanos);
+        if (!quiet) {
+            System.out.printf("    %.2f links/op, %.2f cuts/op%n",
+                    (double) h.totalLinks() / ops, (double) h.totalCuts() / ops);
+        }
+    }
+
+    /**
+     * Loading n keys into an empty heap: n inserts against one insertAll.
+     */
+    private static void benchInsertAll(boolean lm, boolean ld, int n) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = (int) ((i * 2654435761L) & Integer.MAX_VALUE);
+        }
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        Heap h = new Heap(lm, ld);
+        for (int key : keys) {
+            h.insert(key, null);
+        }
+        report("load/insert", lm, ld, n, allocatedBytes() - bytes, System.nanoTime() - start);
+
+        bytes = allocatedBytes();
+        start = System.nanoTime();
+        h = new Heap(lm, ld);
+        h.insertAll(keys, null);
+        report("load/insertAll", lm, ld, n, allocatedBytes() - bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Extracting batches of k minima from a heap of n: k x (findMin, deleteMin)
+     * against pollMany. Each batch is followed by k inserts to keep the size.
+     */
+    private static void benchPollMany(boolean lm, boolean ld, int n, int k) {
+        for (boolean batched : new boolean[] {false, true}) {
+            Heap h = new Heap(lm, ld);
+            for (int i = 0; i < n; i++) {
+                h.insert((int) ((i * 2654435761L) & Integer.MAX_VALUE), null);
+            }
+            h.deleteMin();
+            Heap.HeapItem[] out = new Heap.HeapItem[k];
+            int rounds = Math.max(1, n / k);
+            long nanos = 0;
+            long bytes = 0;
+            long links = h.totalLinks();
+            for (int r = 0; r < rounds; r++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                if (batched) {
+                    h.pollMany(out, k);
+                } else {
+                    for (int i = 0; i < k; i++) {
+                        out[i] = h.findMin();
+                        h.deleteMin();
+                    }
+                }
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - allocated;
+                for (int i = 0; i < k; i++) {
+                    h.insert(out[i].key + n, null);
+                }
+            }
+            report((batched ? "pollMany k=" : "deleteMin x k=") + k, lm, ld, rounds * k, bytes, nanos);
+            if (!quiet) {
+                System.out.println("    links/item " + (double) (h.totalLinks() - links) / (rounds * k));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        // warm up so that JIT-compiled code is measured
+        quiet = true;
+        for (int r = 0; r < 3; r++) {
+            for (boolean[] c : CONFIGS) {
+                benchInsert(c[0], c[1], 10_000);
+                benchMeld(c[0], c[1], 10_000);
+                benchDecreaseKey(c[0], c[1], 10_000);
+                benchDeleteMin(c[0], c[1], 10_000);
+                if (c[1]) benchCascadingCut(c[0], c[1], 10_000);
+                benchGeneric(c[0], c[1], 10_000);
+                benchChurn(c[0], c[1], 10_000, false);
+                benchInsertAll(c[0], c[1], 10_000);
+                benchPollMany(c[0], c[1], 10_000, 100);
+                benchChurn(c[0], c[1], 10_000, true);
+                benchEngine(label(c[0], c[1]), () -> new Heap(c[0], c[1]), 10_000);
+            }
+            benchEngine("HeapPairing", HeapPairing::new, 10_000);
+            benchEngine("HeapHollow", HeapHollow::new, 10_000);
+            benchEngine("HeapRankPairing type-1", () -> new HeapRankPairing(false), 10_000);
+            benchEngine("HeapRankPairing type-2", () -> new HeapRankPairing(true), 10_000);
+            benchEngine("HeapDary d=2", () -> new HeapDary(2), 10_000);
+            benchEngine("HeapDary d=4", () -> new HeapDary(4), 10_000);
+            benchEngine("HeapDary d=8", () -> new HeapDary(8), 10_000);
+            benchEngine("HeapRadix", HeapRadix::new, 10_000);
+        }
+        quiet = false;
+        System.out.println("===== HeapBenchmark n=" + n + " =====");
+        for (boolean[] c : CONFIGS) {
+            benchInsert(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchMeld(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchDecreaseKey(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchDeleteMin(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchGeneric(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchArrays(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchInsertAll(c[0], c[1], n);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchPollMany(c[0], c[1], n, 256);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchChurn(c[0], c[1], n, false);
+            benchChurn(c[0], c[1], n, true);
+        }
+        for (boolean[] c : CONFIGS) {
+            benchEngine(label(c[0], c[1]), () -> new Heap(c[0], c[1]), n);
+        }
+        benchEngine("HeapPairing", HeapPairing::new, n);
+        benchEngine("HeapHollow", HeapHollow::new, n);
+        benchEngine("HeapRankPairing type-1", () -> new HeapRankPairing(false), n);
+        benchEngine("HeapRankPairing type-2", () -> new HeapRankPairing(true), n);
+        benchEngine("HeapDary d=2", () -> new HeapDary(2), n);
+        benchEngine("HeapDary d=4", () -> new HeapDary(4), n);
+        benchEngine("HeapDary d=8", () -> new HeapDary(8), n);
+        benchEngine("HeapRadix", HeapRadix::new, n);
+        for (int size : new int[] {1_000, 100_000}) {
+            benchEngine("Heap (true, true) n=" + size, () -> new Heap(true, true), size);
+            benchEngine("HeapDary d=4 n=" + size, () -> new HeapDary(4), size);
+        }
+        // worst-case marked chains, only reachable with lazy decrease keys
+        for (boolean[] c : CONFIGS) {
+            if (c[1]) {
+                benchCascadingCut(c[0], c[1], 1_000);
+                benchCascadingCut(c[0], c[1], n);
+            }
+        }
+    }
+}
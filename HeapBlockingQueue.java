@@ -0,0 +1,473 @@
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * HeapBlockingQueue
+ *
+ * An unbounded BlockingQueue ordered by a long priority per element,
+ * smallest first, kept in a Fibonacci HeapGeneric (long keys, lazy melds
+ * and lazy decrease keys): offer is O(1), and a queued element can be
+ * moved forward with decreaseKey in O(1) amortized instead of the O(n)
+ * remove and offer of PriorityBlockingQueue.
+ *
+ * A queue made by delayQueue works like DelayQueue: the priority is the
+ * System.nanoTime() at which the element's delay expires, and poll, take
+ * and drainTo only hand out expired elements. As in DelayQueue, one
+ * waiting thread (the leader) waits for the head to expire and the others
+ * wait until they are signalled.
+ *
+ * Threads wait on a ReentrantLock Condition rather than in synchronized
+ * blocks, so virtual threads blocked in take unmount from their carrier.
+ *
+ */
+public class HeapBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E>
+{
+    private final ToLongFunction<? super E> priority;
+    private final boolean delayed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+    private HeapGeneric<Long, Handle<E>> heap = HeapGeneric.longMinHeap(true, true);
+    private Thread leader; // the thread waiting for the head to expire, delayed queues only
+
+    /**
+     *
+     * Constructor to initialize an empty queue that takes the element with the
+     * smallest priority first.
+     *
+     */
+    public HeapBlockingQueue(ToLongFunction<? super E> priority)
+    {
+        this(priority, false);
+    }
+
+    private HeapBlockingQueue(ToLongFunction<? super E> priority, boolean delayed)
+    {
+        this.priority = Objects.requireNonNull(priority);
+        this.delayed = delayed;
+    }
+
+    /**
+     *
+     * Return an empty queue of Delayed elements that hands out each element
+     * once its delay has expired, earliest first.
+     *
+     */
+    public static <E extends Delayed> HeapBlockingQueue<E> delayQueue()
+    {
+        return new HeapBlockingQueue<>(e -> deadline(e.getDelay(TimeUnit.NANOSECONDS)), true);
+    }
+
+    /**
+     * Return the System.nanoTime() after delay nanoseconds, saturated.
+     */
+    private static long deadline(long delay) {
+        long now = System.nanoTime();
+        long deadline = now + delay;
+        // overflow only if both have the same sign and the sum a different one
+        if (((now ^ deadline) & (delay ^ deadline)) < 0) {
+            return delay > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return deadline;
+    }
+
+    /**
+     *
+     * Insert e with the priority given by the queue's priority function and
+     * return its handle for decreaseKey and remove.
+     *
+     */
+    public Handle<E> insert(E e)
+    {
+        Objects.requireNonNull(e);
+        return this.insert(e, this.priority.applyAsLong(e));
+    }
+
+    /**
+     *
+     * Insert e with the given priority (for a delayed queue, the System.nanoTime()
+     * at which it expires) and return its handle.
+     *
+     */
+    public Handle<E> insert(E e, long priority)
+    {
+        Objects.requireNonNull(e);
+        Handle<E> handle = new Handle<>(this, e);
+        this.lock.lock();
+        try {
+            handle.item = this.heap.insertLong(priority, handle);
+            handle.queued = true;
+            this.signalIfHead(handle.item);
+            return handle;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * pre: newPriority <= the item's priority
+     *
+     * Move the element of the handle forward to newPriority. Return false, and
+     * do nothing, if it is no longer in this queue.
+     *
+     */
+    public boolean decreaseKey(Handle<E> handle, long newPriority)
+    {
+        this.lock.lock();
+        try {
+            if (!this.holds(handle)) {
+                return false;
+            }
+            this.heap.decreaseKeyLong(handle.item, newPriority);
+            this.signalIfHead(handle.item);
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * Remove the element of the handle from the queue. Return false if it was
+     * no longer in this queue.
+     *
+     */
+    public boolean remove(Handle<E> handle)
+    {
+        this.lock.lock();
+        try {
+            if (!this.holds(handle)) {
+                return false;
+            }
+            this.heap.delete(handle.item);
+            handle.queued = false;
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Return whether the handle's element is queued in this queue, under the lock.
+     */
+    private boolean holds(Handle<E> handle) {
+        return handle.queue == this && handle.queued;
+    }
+
+    private void signalIfHead(HeapGeneric.HeapItem<Long, Handle<E>> item) {
+        if (!this.delayed) {
+            this.available.signal();
+        } else if (this.heap.findMin() == item) {
+            // a new head: the leader, if any, waits for the wrong deadline
+            this.leader = null;
+            this.available.signal();
+        }
+    }
+
+    /**
+     * Return the nanoseconds until first may be taken, 0 or less if now.
+     */
+    private long delay(HeapGeneric.HeapItem<Long, Handle<E>> first) {
+        return this.delayed ? first.longKey() - System.nanoTime() : 0;
+    }
+
+    private E removeMin() {
+        Handle<E> first = this.heap.deleteMin();
+        first.queued = false;
+        return first.element;
+    }
+
+    @Override
+    public boolean offer(E e)
+    {
+        this.insert(e);
+        return true;
+    }
+
+    @Override
+    public void put(E e)
+    {
+        this.insert(e);
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit)
+    {
+        this.insert(e);
+        return true;
+    }
+
+    @Override
+    public E poll()
+    {
+        this.lock.lock();
+        try {
+            HeapGeneric.HeapItem<Long, Handle<E>> first = this.heap.findMin();
+            return (first == null || this.delay(first) > 0) ? null : this.removeMin();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException
+    {
+        this.lock.lockInterruptibly();
+        try {
+            while (true) {
+                HeapGeneric.HeapItem<Long, Handle<E>> first = this.heap.findMin();
+                if (first == null) {
+                    this.available.await();
+                    continue;
+                }
+                long delay = this.delay(first);
+                if (delay <= 0) {
+                    return this.removeMin();
+                }
+                if (this.leader != null) {
+                    this.available.await();
+                } else {
+                    Thread me = Thread.currentThread();
+                    this.leader = me;
+                    try {
+                        this.available.awaitNanos(delay);
+                    } finally {
+                        if (this.leader == me) {
+                            this.leader = null;
+                        }
+                    }
+                }
+            }
+        } finally {
+            this.signalNext();
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            while (true) {
+                HeapGeneric.HeapItem<Long, Handle<E>> first = this.heap.findMin();
+                if (first == null) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = this.available.awaitNanos(nanos);
+                    continue;
+                }
+                long delay = this.delay(first);
+                if (delay <= 0) {
+                    return this.removeMin();
+                }
+                if (nanos <= 0) {
+                    return null;
+                }
+                if (nanos < delay || this.leader != null) {
+                    nanos = this.available.awaitNanos(nanos);
+                } else {
+                    Thread me = Thread.currentThread();
+                    this.leader = me;
+                    try {
+                        nanos -= delay - this.available.awaitNanos(delay);
+                    } finally {
+                        if (this.leader == me) {
+                            this.leader = null;
+                        }
+                    }
+                }
+            }
+        } finally {
+            this.signalNext();
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Pass the turn to wait for the head on to another waiting thread. Only
+     * needed for delayed queues: otherwise every insert already signals.
+     */
+    private void signalNext() {
+        if (this.delayed && this.leader == null && this.heap.findMin() != null) {
+            this.available.signal();
+        }
+    }
+
+    @Override
+    public E peek()
+    {
+        this.lock.lock();
+        try {
+            HeapGeneric.HeapItem<Long, Handle<E>> first = this.heap.findMin();
+            return (first == null) ? null : first.value.element;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        this.lock.lock();
+        try {
+            return this.heap.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c)
+    {
+        return this.drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements)
+    {
+        Objects.requireNonNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException("cannot drain a queue into itself");
+        }
+        this.lock.lock();
+        try {
+            int n = 0;
+            for (HeapGeneric.HeapItem<Long, Handle<E>> first;
+                    n < maxElements && (first = this.heap.findMin()) != null && this.delay(first) <= 0; n++) {
+                c.add(this.removeMin());
+            }
+            return n;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        this.lock.lock();
+        try {
+            for (Handle<E> handle : this.handles()) {
+                if (handle.element.equals(o)) {
+                    this.heap.delete(handle.item);
+                    handle.queued = false;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        this.lock.lock();
+        try {
+            this.heap.forEach(item -> item.value.queued = false);
+            this.heap = HeapGeneric.longMinHeap(true, true);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     *
+     * Return an iterator over a snapshot of the queue, in no particular order.
+     * Its remove removes the element from the queue if it is still there.
+     *
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+        List<Handle<E>> snapshot;
+        this.lock.lock();
+        try {
+            snapshot = this.handles();
+        } finally {
+            this.lock.unlock();
+        }
+        return new Iterator<E>() {
+            private int next;
+
+            public boolean hasNext() {
+                return this.next < snapshot.size();
+            }
+
+            public E next() {
+                if (this.next >= snapshot.size()) {
+                    throw new NoSuchElementException();
+                }
+                return snapshot.get(this.next++).element;
+            }
+
+            public void remove() {
+                if (this.next == 0) {
+                    throw new IllegalStateException();
+                }
+                HeapBlockingQueue.this.remove(snapshot.get(this.next - 1));
+            }
+        };
+    }
+
+    private List<Handle<E>> handles() {
+        List<Handle<E>> handles = new ArrayList<>(this.heap.size());
+        this.heap.forEach(item -> handles.add(item.value));
+        return handles;
+    }
+
+    /**
+     * Class implementing the handle of a queued element. Whether the element is
+     * still queued is recorded here, by its queue under the queue's lock, so
+     * handles from another queue or of elements already taken are refused
+     * without touching the heap.
+     */
+    public static final class Handle<E> {
+        private final HeapBlockingQueue<E> queue;
+        private final E element;
+        private HeapGeneric.HeapItem<Long, Handle<E>> item;
+        private boolean queued;
+
+        private Handle(HeapBlockingQueue<E> queue, E element) {
+            this.queue = queue;
+            this.element = element;
+        }
+
+        public E element() {
+            return this.element;
+        }
+
+        /**
+         * Return the priority the element was last given.
+         */
+        public long priority() {
+            this.queue.lock.lock();
+            try {
+                return this.item.longKey();
+            } finally {
+                this.queue.lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * HeapBucket
+ *
+ * A bucket queue (Dial) over the integers 0..maxKey, with the same items
+ * as Heap. There is one bucket per key, and a bitmap of the non-empty
+ * buckets. insert and decreaseKey only put the item in the bucket of its
+ * key, in O(1). The lowest non-empty bucket is kept, so findMin is O(1),
+ * and deleteMin looks for the next one in the bitmap, at most
+ * maxKey/64 words, which is O(1) for a fixed key range.
+ *
+ * The HeapNode fields are used as follows: next and prev link the nodes of
+ * a bucket in a circular list and rank is -1 once the item is deleted.
+ * child, parent and mark are not used.
+ *
+ */
+public class HeapBucket implements AddressableHeap<HeapBucket>
+{
+    public final int maxKey;
+    private final Heap.HeapNode[] buckets;
+    private final long[] nonEmpty; // bit k is set when bucket k is not empty
+    private int minKey; // the lowest non-empty bucket, maxKey+1 if empty
+    private int numBuckets;
+    private int size;
+    private int totalHeapifyCosts;
+
+    /**
+     *
+     * Constructor to initialize an empty heap for the keys 0..maxKey.
+     *
+     */
+    public HeapBucket(int maxKey)
+    {
+        if (maxKey < 0 || maxKey == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxKey must be in 0.." + (Integer.MAX_VALUE - 1));
+        }
+        this.maxKey = maxKey;
+        this.buckets = new Heap.HeapNode[maxKey + 1];
+        this.nonEmpty = new long[(maxKey >> 6) + 1];
+        this.minKey = maxKey + 1;
+    }
+
+    /**
+     *
+     * pre: 0 <= key <= maxKey
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0 || key > this.maxKey) {
+            throw new IllegalArgumentException("key must be in 0.." + this.maxKey);
+        }
+        Heap.HeapItem item = new Heap.HeapItem(key, info);
+        Heap.HeapNode node = new Heap.HeapNode(item);
+        item.node = node;
+        this.add(node);
+        this.size++;
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return (this.size == 0) ? null : this.buckets[this.minKey].item;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        if (this.size > 0) {
+            this.delete(this.buckets[this.minKey].item);
+        }
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0 || diff > x.key) {
+            throw new IllegalArgumentException("diff must be in 0.." + x.key);
+        }
+        if (diff == 0) {
+            return;
+        }
+        this.remove(x.node);
+        x.key -= diff;
+        this.add(x.node);
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        this.remove(x.node);
+        x.node.rank = -1;
+        this.size--;
+        if (this.size == 0) {
+            this.minKey = this.maxKey + 1;
+        } else if (this.buckets[this.minKey] == null) {
+            this.minKey = this.nextNonEmpty(this.minKey);
+        }
+    }
+
+    /**
+     *
+     * pre: heap2.maxKey <= maxKey
+     *
+     * Meld the heap with heap2, which is left empty.
+     * The buckets of heap2 are spliced into this heap's buckets.
+     *
+     */
+    public void meld(HeapBucket heap2)
+    {
+        if (heap2 == null || heap2.size == 0) {
+            return;
+        }
+        if (heap2.maxKey > this.maxKey) {
+            throw new IllegalArgumentException("heap2.maxKey must be <= " + this.maxKey);
+        }
+        long[] words = heap2.nonEmpty;
+        for (int w = heap2.minKey >> 6; w < words.length; w++) {
+            for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                int key = (w << 6) + Long.numberOfTrailingZeros(bits);
+                Heap.HeapNode list = heap2.buckets[key];
+                Heap.HeapNode head = this.buckets[key];
+                if (head == null) {
+                    this.buckets[key] = list;
+                    this.nonEmpty[w] |= 1L << key;
+                    this.numBuckets++;
+                } else {
+                    Heap.HeapNode tail = list.prev;
+                    head.prev.next = list;
+                    list.prev = head.prev;
+                    tail.next = head;
+                    head.prev = tail;
+                }
+                heap2.buckets[key] = null;
+            }
+            words[w] = 0;
+        }
+        this.minKey = Math.min(this.minKey, heap2.minKey);
+        this.size += heap2.size;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        heap2.minKey = heap2.maxKey + 1;
+        heap2.numBuckets = 0;
+        heap2.size = 0;
+        heap2.totalHeapifyCosts = 0;
+    }
+
+    /**
+     * Add the detached node to the bucket of its key.
+     */
+    private void add(Heap.HeapNode node) {
+        int key = node.item.key;
+        Heap.HeapNode head = this.buckets[key];
+        node.rank = 0;
+        if (head == null) {
+            node.next = node;
+            node.prev = node;
+            this.buckets[key] = node;
+            this.nonEmpty[key >> 6] |= 1L << key;
+            this.numBuckets++;
+        } else {
+            node.next = head;
+            node.prev = head.prev;
+            head.prev.next = node;
+            head.prev = node;
+        }
+        if (key < this.minKey) {
+            this.minKey = key;
+        }
+    }
+
+    /**
+     * Remove the node from its bucket.
+     */
+    private void remove(Heap.HeapNode node) {
+        int key = node.item.key;
+        if (node.next == node) {
+            this.buckets[key] = null;
+            this.nonEmpty[key >> 6] &= ~(1L << key);
+            this.numBuckets--;
+        } else {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            if (this.buckets[key] == node) {
+                this.buckets[key] = node.next;
+            }
+        }
+        node.next = node;
+        node.prev = node;
+    }
+
+    /**
+     * Return the lowest non-empty bucket above key, which must exist.
+     */
+    private int nextNonEmpty(int key) {
+        int w = key >> 6;
+        long bits = this.nonEmpty[w] & (-2L << key);
+        while (bits == 0) {
+            bits = this.nonEmpty[++w];
+            this.totalHeapifyCosts++;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap: the number of non-empty buckets.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numBuckets;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links, always 0.
+     *
+     */
+    public int totalLinks()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of cuts, always 0.
+     *
+     */
+    public int totalCuts()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total heapify costs: the number of bitmap words skipped while
+     * looking for the next minimum.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+}
@@ -0,0 +1,332 @@
+import java.util.Arrays;
+
+/**
+ * HeapDary
+ *
+ * An indexed d-ary heap over positive integers, with the same items as
+ * Heap. The items are kept in one array in heap order, with their keys
+ * copied into a parallel int array so that sifting compares contiguous
+ * memory. Each item holds its own index in the array, which gives
+ * decreaseKey and delete in O(log_d n). The items have no HeapNode of their
+ * own: while in the heap, every item's node is the heap's one shared node,
+ * so a sift step writes one field of the item it moves and nothing more.
+ *
+ * There are no trees to link or cut: every step an item moves up or down
+ * the array is counted as a heapify cost.
+ *
+ */
+public class HeapDary implements AddressableHeap<HeapDary>
+{
+    public final int arity;
+    private int[] keys;
+    private Item[] items;
+    private int size;
+    private int totalHeapifyCosts;
+    private final Heap.HeapNode node = new Heap.HeapNode(null); // the node of every item in this heap
+
+    /**
+     * An item that knows its index in the array, -1 once deleted.
+     */
+    private static final class Item extends Heap.HeapItem
+    {
+        int index;
+
+        Item(int key, String info) {
+            super(key, info);
+        }
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty heap in which every node has up to arity children.
+     *
+     */
+    public HeapDary(int arity)
+    {
+        this(arity, 16);
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty heap with room for capacity items.
+     *
+     */
+    public HeapDary(int arity, int capacity)
+    {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be >= 2");
+        }
+        this.arity = arity;
+        capacity = Math.max(capacity, 1);
+        this.keys = new int[capacity];
+        this.items = new Item[capacity];
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Item item = new Item(key, info);
+        this.add(item);
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return (this.size == 0) ? null : this.items[0];
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        if (this.size > 0) {
+            this.removeAt(0);
+        }
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        Item item = this.own(x);
+        item.key -= diff;
+        int i = item.index;
+        this.keys[i] = item.key;
+        this.siftUp(i, item);
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        this.removeAt(this.own(x).index);
+    }
+
+    /**
+     * Return x as an item of this heap, rejecting items that were deleted or
+     * belong to another heap.
+     */
+    private Item own(Heap.HeapItem x) {
+        if (x.node != this.node) {
+            throw new IllegalArgumentException("item is not in this heap");
+        }
+        return (Item) x;
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, which is left empty.
+     * The smaller heap's items are added to the larger one's array; when they
+     * are many, the whole array is re-heapified bottom-up instead of sifting
+     * each one up.
+     *
+     */
+    public void meld(HeapDary heap2)
+    {
+        if (heap2 == null || heap2.size == 0) {
+            return;
+        }
+        int n = this.size + heap2.size;
+        this.ensureCapacity(n);
+        if (heap2.size <= this.size / 8) {
+            for (int i = 0; i < heap2.size; i++) {
+                this.add(heap2.items[i]);
+            }
+        } else {
+            System.arraycopy(heap2.keys, 0, this.keys, this.size, heap2.size);
+            System.arraycopy(heap2.items, 0, this.items, this.size, heap2.size);
+            for (int i = this.size; i < n; i++) {
+                this.items[i].index = i;
+                this.items[i].node = this.node;
+            }
+            this.size = n;
+            for (int i = (n - 2) / this.arity; i >= 0; i--) {
+                this.siftDown(i, this.items[i]);
+            }
+        }
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        Arrays.fill(heap2.items, 0, heap2.size, null);
+        heap2.size = 0;
+        heap2.totalHeapifyCosts = 0;
+    }
+
+    private void add(Item item) {
+        this.ensureCapacity(this.size + 1);
+        int i = this.size++;
+        this.keys[i] = item.key;
+        item.node = this.node;
+        this.siftUp(i, item);
+    }
+
+    /**
+     * Remove the item at index i, filling the hole with the last item.
+     */
+    private void removeAt(int i) {
+        this.items[i].index = -1;
+        this.items[i].node = null;
+        int last = --this.size;
+        Item moved = this.items[last];
+        this.items[last] = null;
+        if (i == last) {
+            return;
+        }
+        this.keys[i] = moved.key;
+        if (i > 0 && moved.key < this.keys[(i - 1) / this.arity]) {
+            this.siftUp(i, moved);
+        } else {
+            this.siftDown(i, moved);
+        }
+    }
+
+    /**
+     * Move item, whose key is already in keys[i], up from the hole at index i
+     * while it is smaller than its parent.
+     */
+    private void siftUp(int i, Item item) {
+        int key = item.key;
+        while (i > 0) {
+            int p = (i - 1) / this.arity;
+            if (this.keys[p] <= key) {
+                break;
+            }
+            this.keys[i] = this.keys[p];
+            this.items[i] = this.items[p];
+            this.items[i].index = i;
+            i = p;
+            this.totalHeapifyCosts++;
+        }
+        this.keys[i] = key;
+        this.items[i] = item;
+        item.index = i;
+    }
+
+    /**
+     * Move item down from the hole at index i while a child is smaller.
+     */
+    private void siftDown(int i, Item item) {
+        int key = item.key;
+        int n = this.size;
+        while (true) {
+            int first = this.arity * i + 1;
+            if (first >= n) {
+                break;
+            }
+            int last = Math.min(first + this.arity, n);
+            int c = first;
+            int cKey = this.keys[first];
+            for (int j = first + 1; j < last; j++) {
+                if (this.keys[j] < cKey) {
+                    c = j;
+                    cKey = this.keys[j];
+                }
+            }
+            if (cKey >= key) {
+                break;
+            }
+            this.keys[i] = cKey;
+            this.items[i] = this.items[c];
+            this.items[i].index = i;
+            i = c;
+            this.totalHeapifyCosts++;
+        }
+        this.keys[i] = key;
+        this.items[i] = item;
+        item.index = i;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > this.items.length) {
+            int length = Math.max(capacity, 2 * this.items.length);
+            this.keys = Arrays.copyOf(this.keys, length);
+            this.items = Arrays.copyOf(this.items, length);
+        }
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap, at most one.
+     *
+     */
+    public int numTrees()
+    {
+        return (this.size == 0) ? 0 : 1;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links, always 0.
+     *
+     */
+    public int totalLinks()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of cuts, always 0.
+     *
+     */
+    public int totalCuts()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total heapify costs: the number of steps items moved up or down.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * HeapFactory
+ *
+ * Creates any of the heap engines by name, so that the engine can be picked
+ * from a configuration value. The first four names are the lazyMelds and
+ * lazyDecreaseKeys variants of Heap, and BUCKET is the bucket queue for
+ * keys in a small range.
+ *
+ */
+public final class HeapFactory
+{
+    public enum Engine
+    {
+        BINOMIAL,           // Heap(false, false)
+        BINOMIAL_LAZY,      // Heap(true, false)
+        BINOMIAL_WITH_CUTS, // Heap(false, true)
+        FIBONACCI,          // Heap(true, true)
+        PAIRING,
+        HOLLOW,
+        RANK_PAIRING,       // type-2 ranks
+        DARY,               // arity 4
+        RADIX,              // monotone keys only
+        BUCKET              // keys 0..maxKey only
+    }
+
+    /**
+     * The largest maxKey for which forKeyRange picks a bucket queue.
+     */
+    public static final int BUCKET_MAX_KEY = 1 << 16;
+
+    private HeapFactory()
+    {
+    }
+
+    /**
+     *
+     * pre: maxKey >= 0
+     *
+     * Return a new empty heap of the given engine for keys 0..maxKey.
+     * Only BUCKET uses maxKey; the other engines take any key.
+     *
+     */
+    public static AddressableHeap<?> create(Engine engine, int maxKey)
+    {
+        switch (engine) {
+            case BINOMIAL:
+                return new Heap(false, false);
+            case BINOMIAL_LAZY:
+                return new Heap(true, false);
+            case BINOMIAL_WITH_CUTS:
+                return new Heap(false, true);
+            case FIBONACCI:
+                return new Heap(true, true);
+            case PAIRING:
+                return new HeapPairing();
+            case HOLLOW:
+                return new HeapHollow();
+            case RANK_PAIRING:
+                return new HeapRankPairing(true);
+            case DARY:
+                return new HeapDary(4);
+            case RADIX:
+                return new HeapRadix();
+            case BUCKET:
+                return new HeapBucket(maxKey);
+            default:
+                throw new IllegalArgumentException("unknown engine " + engine);
+        }
+    }
+
+    /**
+     *
+     * Return a new empty heap of the engine with the given name, as in Engine.valueOf.
+     *
+     */
+    public static AddressableHeap<?> create(String engine, int maxKey)
+    {
+        return create(Engine.valueOf(engine), maxKey);
+    }
+
+    /**
+     *
+     * pre: maxKey >= 0
+     *
+     * Return a new empty heap for keys 0..maxKey: a bucket queue when
+     * maxKey <= BUCKET_MAX_KEY, and a Fibonacci heap otherwise.
+     *
+     */
+    public static AddressableHeap<?> forKeyRange(int maxKey)
+    {
+        return create(maxKey <= BUCKET_MAX_KEY ? Engine.BUCKET : Engine.FIBONACCI, maxKey);
+    }
+}
@@ -0,0 +1,308 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * HeapFlatCombining
+ *
+ * A linearizable concurrent priority queue: one Heap used through flat
+ * combining (Hendler, Incze, Shavit and Tzafrir). A thread does not lock
+ * the heap for its own operation. It publishes the operation in its own
+ * record and then either waits for the result or, if the lock is free,
+ * becomes the combiner: it applies every published operation to the heap
+ * in one pass (or a few), so one lock acquisition serves many operations
+ * and the heap's cache lines stay with one core.
+ *
+ * Each thread has one record, added to a list on its first operation.
+ * As in the paper, records age: every CLEANUP_EVERY turns the combiner
+ * unlinks the records that have had no operation for MAX_IDLE turns, so
+ * the records of threads that are gone (pools, virtual threads) do not
+ * stay reachable. A thread that finds its record unlinked links it again.
+ * Operations take effect while the combiner holds the lock, which is when
+ * they are linearized.
+ *
+ */
+public class HeapFlatCombining
+{
+    private static final int NONE = 0;
+    private static final int INSERT = 1;
+    private static final int DELETE_MIN = 2;
+    private static final int DECREASE_KEY = 3;
+    private static final int DELETE = 4;
+    private static final int FIND_MIN = 5;
+
+    private static final int PASSES = 3; // passes over the records per combining turn
+    private static final int CLEANUP_EVERY = 256; // combining turns between removals of idle records, a power of 2
+    private static final int MAX_IDLE = 1024; // combining turns without an operation before a record is removed
+
+    private final Heap heap;
+    private final AtomicBoolean lock = new AtomicBoolean();
+    private final AtomicReference<Record> records = new AtomicReference<>();
+    private final ThreadLocal<Record> record = ThreadLocal.withInitial(this::newRecord);
+    private volatile int size;
+    private int totalCombines;
+    private int totalCombined;
+
+    private static final class Record
+    {
+        volatile int op; // NONE once the result is ready
+        volatile boolean active; // in the record list; cleared by the combiner that unlinks it
+        int age; // totalCombines when the record was linked or last had an operation applied
+        int key;
+        String info;
+        Heap.HeapItem item;
+        RuntimeException error;
+        Record next;
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty queue over a Heap with the given flags.
+     *
+     */
+    public HeapFlatCombining(boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        this.heap = new Heap(lazyMelds, lazyDecreaseKeys);
+    }
+
+    private Record newRecord() {
+        Record r = new Record();
+        this.link(r);
+        return r;
+    }
+
+    /**
+     * Push r on the record list. Only the thread of r links it, while it is not active.
+     */
+    private void link(Record r) {
+        r.age = this.totalCombines;
+        r.active = true;
+        do {
+            r.next = this.records.get();
+        } while (!this.records.compareAndSet(r.next, r));
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the queue and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Record r = this.record.get();
+        r.key = key;
+        r.info = info;
+        return this.publish(r, INSERT);
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return this.publish(this.record.get(), FIND_MIN);
+    }
+
+    /**
+     *
+     * Delete the minimal item and return it, null if empty.
+     *
+     */
+    public Heap.HeapItem deleteMin()
+    {
+        return this.publish(this.record.get(), DELETE_MIN);
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key, x is in the queue
+     *
+     * Decrease the key of x by diff.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        Record r = this.record.get();
+        r.item = x;
+        r.key = diff;
+        this.publish(r, DECREASE_KEY);
+    }
+
+    /**
+     *
+     * pre: x is in the queue
+     *
+     * Delete x from the queue.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        Record r = this.record.get();
+        r.item = x;
+        this.publish(r, DELETE);
+    }
+
+    /**
+     *
+     * Return the number of items after the last combining pass.
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the average number of operations applied per lock acquisition.
+     *
+     */
+    public double combiningRate()
+    {
+        this.lock();
+        try {
+            return (this.totalCombines == 0) ? 0 : (double) this.totalCombined / this.totalCombines;
+        } finally {
+            this.lock.set(false);
+        }
+    }
+
+    /**
+     * Publish the operation in r and return its result once some combiner,
+     * maybe this thread, has applied it.
+     */
+    private Heap.HeapItem publish(Record r, int op) {
+        r.op = op;
+        for (int spins = 1; r.op != NONE; spins++) {
+            if (!r.active) {
+                // unlinked as idle, maybe just before op was set
+                this.link(r);
+            }
+            if (!this.lock.get() && this.lock.compareAndSet(false, true)) {
+                try {
+                    this.combine();
+                } finally {
+                    this.lock.set(false);
+                }
+            } else if ((spins & 63) == 0) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        Heap.HeapItem result = r.item;
+        RuntimeException error = r.error;
+        r.item = null;
+        r.info = null;
+        r.error = null;
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private void combine() {
+        int combined = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            int applied = 0;
+            for (Record r = this.records.get(); r != null; r = r.next) {
+                int op = r.op;
+                if (op != NONE) {
+                    this.apply(r, op);
+                    r.age = this.totalCombines;
+                    r.op = NONE;
+                    applied++;
+                }
+            }
+            combined += applied;
+            if (applied == 0) {
+                break;
+            }
+        }
+        this.size = this.heap.size();
+        this.totalCombines++;
+        this.totalCombined += combined;
+        if ((this.totalCombines & (CLEANUP_EVERY - 1)) == 0) {
+            this.removeIdle();
+        }
+    }
+
+    /**
+     * Unlink the records without an operation for MAX_IDLE combining turns.
+     * The first record stays, since new records are pushed in front of it.
+     */
+    private void removeIdle() {
+        Record prev = this.records.get();
+        if (prev == null) {
+            return;
+        }
+        for (Record r = prev.next; r != null; r = prev.next) {
+            if (r.op == NONE && this.totalCombines - r.age > MAX_IDLE) {
+                prev.next = r.next;
+                r.active = false;
+            } else {
+                prev = r;
+            }
+        }
+    }
+
+    /**
+     * Return the number of records in the list, for tests.
+     */
+    int numRecords() {
+        this.lock();
+        try {
+            int n = 0;
+            for (Record r = this.records.get(); r != null; r = r.next) {
+                n++;
+            }
+            return n;
+        } finally {
+            this.lock.set(false);
+        }
+    }
+
+    private void apply(Record r, int op) {
+        try {
+            switch (op) {
+                case INSERT:
+                    r.item = this.heap.insert(r.key, r.info);
+                    break;
+                case FIND_MIN:
+                    r.item = this.heap.findMin();
+                    break;
+                case DELETE_MIN:
+                    r.item = this.heap.findMin();
+                    this.heap.deleteMin();
+                    break;
+                case DECREASE_KEY:
+                    this.heap.decreaseKey(r.item, r.key);
+                    r.item = null;
+                    break;
+                case DELETE:
+                    this.heap.delete(r.item);
+                    r.item = null;
+                    break;
+                default:
+                    throw new IllegalStateException("unknown operation " + op);
+            }
+        } catch (RuntimeException e) {
+            r.error = e;
+        }
+    }
+
+    private void lock() {
+        while (!this.lock.compareAndSet(false, true)) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,702 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * HeapGeneric
+ *
+ * A Fibonacci heap with keys of type K and values of type V, ordered by a
+ * pluggable Comparator, with the same lazyMelds / lazyDecreaseKeys flags and
+ * counters as Heap. The "min" is the first item in comparator order, so a
+ * reversed comparator gives a max-heap.
+ *
+ * Heaps created by intMinHeap, intMaxHeap, longMinHeap and longMaxHeap keep
+ * the key as a primitive long inside the item and compare it directly,
+ * without boxing or calling a Comparator. Use insertLong / decreaseKeyLong on
+ * them to stay primitive end to end; key() boxes on first use only.
+ *
+ */
+public class HeapGeneric<K, V>
+{
+    public final boolean lazyMelds;
+    public final boolean lazyDecreaseKeys;
+    private final Comparator<? super K> comparator;
+    private final boolean primitive;  // compare HeapItem.prim instead of calling the comparator
+    private final boolean reversed;   // primitive max-heap
+    private final boolean intKeys;    // primitive keys are ints, boxed as Integer
+    public HeapItem<K, V> min;
+    public int numTrees;
+    public int size;
+    public int totalLinks;
+    public int totalCuts;
+    public int totalHeapifyCosts;
+    public int _numMarkedNodes;
+    private HeapNode<K, V>[] ranksTable = newTable(0);
+
+    /**
+     *
+     * Constructor to initialize an empty heap ordered by comparator,
+     * or by the natural ordering of K when comparator is null.
+     *
+     */
+    @SuppressWarnings("unchecked")
+    public HeapGeneric(boolean lazyMelds, boolean lazyDecreaseKeys, Comparator<? super K> comparator)
+    {
+        this(lazyMelds, lazyDecreaseKeys,
+                comparator != null ? comparator : (Comparator<? super K>) Comparator.naturalOrder(),
+                false, false, false);
+    }
+
+    private HeapGeneric(boolean lazyMelds, boolean lazyDecreaseKeys, Comparator<? super K> comparator,
+            boolean primitive, boolean reversed, boolean intKeys)
+    {
+        this.lazyMelds = lazyMelds;
+        this.lazyDecreaseKeys = lazyDecreaseKeys;
+        this.comparator = comparator;
+        this.primitive = primitive;
+        this.reversed = reversed;
+        this.intKeys = intKeys;
+    }
+
+    /**
+     * Return an empty heap of int keys, smallest first.
+     */
+    public static <V> HeapGeneric<Integer, V> intMinHeap(boolean lazyMelds, boolean lazyDecreaseKeys) {
+        return new HeapGeneric<>(lazyMelds, lazyDecreaseKeys, Comparator.naturalOrder(), true, false, true);
+    }
+
+    /**
+     * Return an empty heap of int keys, largest first.
+     */
+    public static <V> HeapGeneric<Integer, V> intMaxHeap(boolean lazyMelds, boolean lazyDecreaseKeys) {
+        return new HeapGeneric<>(lazyMelds, lazyDecreaseKeys, Comparator.reverseOrder(), true, true, true);
+    }
+
+    /**
+     * Return an empty heap of long keys, smallest first.
+     */
+    public static <V> HeapGeneric<Long, V> longMinHeap(boolean lazyMelds, boolean lazyDecreaseKeys) {
+        return new HeapGeneric<>(lazyMelds, lazyDecreaseKeys, Comparator.naturalOrder(), true, false, false);
+    }
+
+    /**
+     * Return an empty heap of long keys, largest first.
+     */
+    public static <V> HeapGeneric<Long, V> longMaxHeap(boolean lazyMelds, boolean lazyDecreaseKeys) {
+        return new HeapGeneric<>(lazyMelds, lazyDecreaseKeys, Comparator.reverseOrder(), true, true, false);
+    }
+
+    /**
+     * Return the comparator ordering this heap.
+     */
+    public Comparator<? super K> comparator() {
+        return this.comparator;
+    }
+
+    /**
+     * Return true if a comes strictly before b in this heap's order.
+     */
+    private boolean less(HeapItem<K, V> a, HeapItem<K, V> b) {
+        if (this.primitive) {
+            return this.reversed ? b.prim < a.prim : a.prim < b.prim;
+        }
+        return this.comparator.compare(a.key, b.key) < 0;
+    }
+
+    /**
+     *
+     * Insert (key,value) into the heap and return the newly generated HeapItem.
+     *
+     */
+    public HeapItem<K, V> insert(K key, V value)
+    {
+        HeapItem<K, V> item = new HeapItem<>(this, key, value);
+        if (this.primitive) {
+            item.prim = ((Number) key).longValue();
+        }
+        return this.insertItem(item);
+    }
+
+    /**
+     *
+     * pre: this heap was created by intMinHeap, intMaxHeap, longMinHeap or longMaxHeap
+     *      (and key fits in an int for the int heaps)
+     *
+     * Insert (key,value) without boxing the key.
+     *
+     */
+    public HeapItem<K, V> insertLong(long key, V value)
+    {
+        this.checkPrimitive();
+        if (this.intKeys && key != (int) key) {
+            throw new IllegalArgumentException("key does not fit in an int");
+        }
+        HeapItem<K, V> item = new HeapItem<>(this, null, value);
+        item.prim = key;
+        return this.insertItem(item);
+    }
+
+    private HeapItem<K, V> insertItem(HeapItem<K, V> item) {
+        HeapNode<K, V> node = new HeapNode<>(item);
+        item.node = node;
+
+        this.size++;
+        if (this.min == null) {
+            this.min = item;
+            this.numTrees = 1;
+            return item;
+        }
+        this.addRoot(node);
+        return item;
+    }
+
+    /**
+     *
+     * Return the first item in heap order, null if empty.
+     *
+     */
+    public HeapItem<K, V> findMin()
+    {
+        return this.min;
+    }
+
+    /**
+     *
+     * Delete the first item in heap order and return its value, null if empty.
+     *
+     */
+    public V deleteMin()
+    {
+        if (this.min == null) {
+            return null;
+        }
+        HeapItem<K, V> removed = this.min;
+        HeapNode<K, V> min_node = removed.node;
+        // A child promoted by an earlier deleteMin may be a marked root
+        if (min_node.mark) {
+            min_node.mark = false;
+            this._numMarkedNodes--;
+        }
+
+        if (this.size == 1) {
+            this.min = null;
+            this.numTrees = 0;
+            this.size = 0;
+            return removed.value;
+        }
+
+        // Promote the children of min to roots
+        HeapNode<K, V> child = min_node.child;
+        if (child != null) {
+            HeapNode<K, V> firstChild = child;
+            do {
+                child.parent = null;
+                child = child.next;
+            } while (child != firstChild);
+        }
+
+        if (min_node.next == min_node) {
+            this.min = child.item;
+            this.numTrees = min_node.rank;
+        } else {
+            HeapNode<K, V> someRoot = min_node.next;
+            min_node.prev.next = min_node.next;
+            min_node.next.prev = min_node.prev;
+            if (child != null) {
+                this.appendNodes(someRoot, child);
+            }
+            this.numTrees = this.numTrees - 1 + min_node.rank;
+            this.min = someRoot.item;
+        }
+        min_node.next = min_node;
+        min_node.prev = min_node;
+        min_node.child = null;
+        min_node.rank = 0;
+        this.size--;
+
+        HeapNode<K, V> scanNode = this.min.node;
+        HeapNode<K, V> scanStart = scanNode;
+        do {
+            if (less(scanNode.item, this.min)) {
+                this.min = scanNode.item;
+            }
+            scanNode = scanNode.next;
+        } while (scanNode != scanStart);
+
+        this.consolidate();
+        return removed.value;
+    }
+
+    /**
+     *
+     * pre: newKey does not come after x.key in heap order
+     *
+     * Move x towards the top by replacing its key with newKey, and fix the heap.
+     *
+     */
+    public void decreaseKey(HeapItem<K, V> x, K newKey)
+    {
+        if (this.primitive) {
+            this.decreaseKeyLong(x, ((Number) newKey).longValue());
+            return;
+        }
+        if (this.comparator.compare(newKey, x.key) > 0) {
+            throw new IllegalArgumentException("newKey comes after the current key");
+        }
+        x.key = newKey;
+        this.siftAfterDecrease(x);
+    }
+
+    /**
+     *
+     * pre: this heap was created by intMinHeap, intMaxHeap, longMinHeap or longMaxHeap
+     *      and newKey does not come after x's key in heap order
+     *
+     * Primitive version of decreaseKey.
+     *
+     */
+    public void decreaseKeyLong(HeapItem<K, V> x, long newKey)
+    {
+        this.checkPrimitive();
+        if (this.reversed ? newKey < x.prim : newKey > x.prim) {
+            throw new IllegalArgumentException("newKey comes after the current key");
+        }
+        if (this.intKeys && newKey != (int) newKey) {
+            throw new IllegalArgumentException("key does not fit in an int");
+        }
+        x.prim = newKey;
+        x.key = null;
+        this.siftAfterDecrease(x);
+    }
+
+    private void siftAfterDecrease(HeapItem<K, V> x) {
+        HeapNode<K, V> parent = x.node.parent;
+        if (parent != null && less(x, parent.item)) {
+            if (lazyDecreaseKeys) {
+                cascadingCut(x.node, false);
+            } else {
+                heapify_up(x.node, false);
+            }
+        }
+        if (less(x, this.min)) {
+            this.min = x;
+        }
+    }
+
+    /**
+     *
+     * Delete the x from the heap.
+     *
+     */
+    public void delete(HeapItem<K, V> x)
+    {
+        // Bring x to the root list as if it came before every other key
+        if (x.node.parent != null) {
+            if (lazyDecreaseKeys) {
+                cascadingCut(x.node, true);
+            } else {
+                heapify_up(x.node, true);
+            }
+        }
+        this.min = x;
+        this.deleteMin();
+    }
+
+    private void checkPrimitive() {
+        if (!this.primitive) {
+            throw new UnsupportedOperationException("not an int or long keyed heap");
+        }
+    }
+
+    /**
+     * Swap the item of node with its parent's while it comes first, or all the
+     * way to the root when toRoot is set.
+     */
+    private void heapify_up(HeapNode<K, V> node, boolean toRoot) {
+        HeapNode<K, V> parent = node.parent;
+        while (parent != null && (toRoot || less(node.item, parent.item))) {
+            HeapItem<K, V> temp = node.item;
+            node.item = parent.item;
+            parent.item = temp;
+            node.item.node = node;
+            parent.item.node = parent;
+
+            node = parent;
+            parent = node.parent;
+            this.totalHeapifyCosts++;
+        }
+    }
+
+    /**
+     * Cut node from its parent and keep cutting up the chain of marked ancestors,
+     * iteratively, as in HeapLong.
+     */
+    private void cascadingCut(HeapNode<K, V> node, boolean deleting) {
+        boolean batch = lazyMelds || deleting;
+        HeapNode<K, V> first = node;
+        HeapNode<K, V> parent;
+        while (true) {
+            parent = node.parent;
+
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            if (parent.child == node) {
+                parent.child = (node.next != node) ? node.next : null;
+            }
+            parent.rank--;
+
+            node.parent = null;
+            node.next = node;
+            node.prev = node;
+            if (batch) {
+                if (node != first) {
+                    this.appendNodes(first, node);
+                }
+                this.numTrees++;
+            } else {
+                this.addRoot(node);
+            }
+            this.totalCuts++;
+
+            if (node.mark) {
+                node.mark = false;
+                this._numMarkedNodes--;
+            }
+
+            if (parent.parent == null) {
+                break;
+            }
+            if (!parent.mark) {
+                parent.mark = true;
+                this._numMarkedNodes++;
+                break;
+            }
+            node = parent;
+        }
+
+        if (batch) {
+            if (deleting || less(first.item, this.min)) {
+                this.appendNodes(this.min.node, first.prev);
+                this.min = first.item;
+            } else {
+                this.appendNodes(this.min.node, first);
+            }
+        }
+    }
+
+    /**
+     *
+     * Meld the heap with heap2
+     * pre: heap2 has the same flags and the same ordering as this heap
+     *
+     */
+    public void meld(HeapGeneric<K, V> heap2)
+    {
+        if (heap2 == null || heap2.min == null) {
+            return;
+        }
+        if (heap2.primitive != this.primitive || heap2.reversed != this.reversed
+                || heap2.intKeys != this.intKeys || (!this.primitive && heap2.comparator != this.comparator)) {
+            throw new IllegalArgumentException("heaps have different orderings");
+        }
+        if (this.min == null) {
+            this.min = heap2.min;
+            this.size = heap2.size;
+            this.numTrees = heap2.numTrees;
+            this.totalLinks = heap2.totalLinks;
+            this.totalCuts = heap2.totalCuts;
+            this.totalHeapifyCosts = heap2.totalHeapifyCosts;
+            this._numMarkedNodes = heap2._numMarkedNodes;
+            return;
+        }
+
+        appendNodes(this.min.node, heap2.min.node);
+        if (less(heap2.min, this.min)) {
+            this.min = heap2.min;
+        }
+        this.size += heap2.size;
+        this.numTrees += heap2.numTrees;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        this._numMarkedNodes += heap2._numMarkedNodes;
+
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+    }
+
+    /**
+     *
+     * Call action on every item in the heap, in no particular order.
+     *
+     */
+    public void forEach(Consumer<? super HeapItem<K, V>> action)
+    {
+        if (this.min != null) {
+            this.forEachIn(this.min.node, action);
+        }
+    }
+
+    /**
+     * Call action on every item in the trees of the list of first, with an
+     * explicit stack since a tree can be deep after many cuts.
+     */
+    private void forEachIn(HeapNode<K, V> first, Consumer<? super HeapItem<K, V>> action) {
+        ArrayDeque<HeapNode<K, V>> lists = new ArrayDeque<>();
+        lists.push(first);
+        while (!lists.isEmpty()) {
+            HeapNode<K, V> start = lists.pop();
+            HeapNode<K, V> x = start;
+            do {
+                action.accept(x.item);
+                if (x.child != null) {
+                    lists.push(x.child);
+                }
+                x = x.next;
+            } while (x != start);
+        }
+    }
+
+    /**
+     * Adds a single detached node to the root list of a non-empty heap,
+     * consolidating when melds are not lazy.
+     */
+    private void addRoot(HeapNode<K, V> node) {
+        appendNodes(this.min.node, node);
+        if (less(node.item, this.min)) {
+            this.min = node.item;
+        }
+        this.numTrees++;
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+    }
+
+    /**
+     * Consolidate function joins trees of the same rank, leaving only one tree for each rank.
+     * A copy of Heap.consolidate() over this class's nodes: a fix to one belongs in both.
+     */
+    private void consolidate() {
+        HeapNode<K, V>[] ranksArray = this.ranksTable;
+        int bound = Heap.rankBound(this.size);
+        if (ranksArray.length < bound) {
+            ranksArray = this.ranksTable = newTable(bound);
+        }
+
+        int roots = this.numTrees;
+        int maxRank = 0;
+        HeapNode<K, V> curr_root = this.min.node;
+        for (int i = 0; i < roots; i++) {
+            HeapNode<K, V> next = curr_root.next;
+            int curr_rank = curr_root.rank;
+            while (ranksArray[curr_rank] != null) {
+                curr_root = this.link(ranksArray[curr_rank], curr_root);
+                ranksArray[curr_rank] = null;
+                curr_rank = curr_root.rank;
+                if (curr_rank == ranksArray.length) {
+                    ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * curr_rank + 1);
+                }
+            }
+            ranksArray[curr_rank] = curr_root;
+            if (curr_rank > maxRank) {
+                maxRank = curr_rank;
+            }
+            curr_root = next;
+        }
+
+        this.min = null;
+        this.numTrees = 0;
+        for (int rank = 0; rank <= maxRank; rank++) {
+            HeapNode<K, V> node = ranksArray[rank];
+            if (node != null) {
+                ranksArray[rank] = null;
+                this.numTrees++;
+                node.next = node;
+                node.prev = node;
+                if (this.min == null) {
+                    this.min = node.item;
+                } else {
+                    this.appendNodes(this.min.node, node);
+                    if (less(node.item, this.min)) {
+                        this.min = node.item;
+                    }
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> HeapNode<K, V>[] newTable(int length) {
+        return (HeapNode<K, V>[]) new HeapNode<?, ?>[length];
+    }
+
+    /**
+     * link two trees of the same rank, moving on tree to be the child of the other
+     */
+    private HeapNode<K, V> link(HeapNode<K, V> node1, HeapNode<K, V> node2) {
+        HeapNode<K, V> parent, newChild;
+        if (less(node1.item, node2.item)) {
+            parent = node1;
+            newChild = node2;
+        } else {
+            parent = node2;
+            newChild = node1;
+        }
+        newChild.prev.next = newChild.next;
+        newChild.next.prev = newChild.prev;
+        newChild.next = newChild;
+        newChild.prev = newChild;
+
+        if (newChild.mark) {
+            newChild.mark = false;
+            this._numMarkedNodes--;
+        }
+
+        newChild.parent = parent;
+        if (parent.child == null) {
+            parent.child = newChild;
+        } else {
+            this.appendNodes(parent.child, newChild);
+        }
+        parent.rank++;
+        this.numTrees--;
+        this.totalLinks++;
+        return parent;
+    }
+
+    /**
+     * Splice the circular list of node2 into the circular list of node1, right after node1.
+     */
+    private void appendNodes(HeapNode<K, V> node1, HeapNode<K, V> node2) {
+        HeapNode<K, V> next1 = node1.next;
+        HeapNode<K, V> next2 = node2.next;
+        node1.next = next2;
+        next2.prev = node1;
+        node2.next = next1;
+        next1.prev = node2;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numTrees;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return this._numMarkedNodes;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total heapify costs.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+
+    /**
+     * Class implementing a node in a HeapGeneric.
+     *
+     */
+    public static class HeapNode<K, V> {
+        public HeapItem<K, V> item;
+        public HeapNode<K, V> child;
+        public HeapNode<K, V> next;
+        public HeapNode<K, V> prev;
+        public HeapNode<K, V> parent;
+        public int rank;
+        public boolean mark;
+
+        public HeapNode(HeapItem<K, V> item) {
+            this.item = item;
+            this.next = this;
+            this.prev = this;
+        }
+    }
+
+    /**
+     * Class implementing an item in a HeapGeneric.
+     * For the int and long heaps the key lives in prim and is boxed by key() on demand.
+     *
+     */
+    public static class HeapItem<K, V> {
+        private static final byte KIND_OBJECT = 0;
+        private static final byte KIND_INT = 1;
+        private static final byte KIND_LONG = 2;
+
+        public HeapNode<K, V> node;
+        public V value;
+        private K key;
+        private long prim;
+        private final byte kind; // KIND_OBJECT, KIND_INT or KIND_LONG
+
+        private HeapItem(HeapGeneric<K, V> heap, K key, V value) {
+            this.kind = !heap.primitive ? KIND_OBJECT : heap.intKeys ? KIND_INT : KIND_LONG;
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Return the key of this item.
+         */
+        @SuppressWarnings("unchecked")
+        public K key() {
+            if (this.key == null && this.kind != KIND_OBJECT) {
+                this.key = (K) (this.kind == KIND_INT ? (Object) Integer.valueOf((int) this.prim) : (Object) Long.valueOf(this.prim));
+            }
+            return this.key;
+        }
+
+        /**
+         * Return the key of this item as a long, without boxing.
+         * pre: the item belongs to an int or long keyed heap
+         */
+        public long longKey() {
+            return this.prim;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+
+/**
+ * HeapHollow
+ *
+ * A hollow heap over positive integers (Hansen, Kaplan, Tarjan and Zwick),
+ * with the same items and counters as Heap. The heap is a single tree
+ * and there are no cascading cuts: decreaseKey moves the item into a new
+ * node linked to the root and leaves the old node in place, hollow, and
+ * delete only empties the item's node. Hollow nodes are removed when
+ * deleteMin reaches them, which then links the full nodes by rank.
+ *
+ * The HeapNode fields are used as follows: item is null for a hollow node,
+ * child is the first child, next is the next sibling (null at the end),
+ * rank is the rank, and parent is the second parent of a hollow node that
+ * was given one by decreaseKey (null otherwise). Such a node is the last
+ * child of its second parent, and its next belongs to its first parent's
+ * list. prev and mark are not used.
+ *
+ */
+public class HeapHollow implements AddressableHeap<HeapHollow>
+{
+    private Heap.HeapNode root;
+    private int size;
+    private int numHollowNodes;
+    private int totalLinks;
+    private Heap.HeapNode[] ranksTable = new Heap.HeapNode[0];
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapHollow()
+    {
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Heap.HeapItem item = new Heap.HeapItem(key, info);
+        this.root = this.meldRoot(this.newNode(item));
+        this.size++;
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return (this.root == null) ? null : this.root.item;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        if (this.root != null) {
+            this.delete(this.root.item);
+        }
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     * Unless x is the root, x moves to a new node that is linked to the root.
+     * Its old node becomes hollow and keeps its children, and the new node
+     * takes it as a child, with rank two less than the old node's.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        x.key -= diff;
+        Heap.HeapNode u = x.node;
+        if (u == this.root || diff == 0) {
+            return;
+        }
+        Heap.HeapNode v = this.newNode(x);
+        u.item = null;
+        this.numHollowNodes++;
+        if (u.rank > 2) {
+            v.rank = u.rank - 2;
+        }
+        v.child = u;
+        u.parent = v;
+        this.root = this.link(v, this.root);
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     * Unless x is the minimum, its node is only made hollow.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        Heap.HeapNode node = x.node;
+        node.item = null;
+        x.node = null;
+        this.numHollowNodes++;
+        this.size--;
+        if (node != this.root) {
+            return;
+        }
+
+        // Destroy the hollow nodes from the root down: their full children are
+        // linked by rank, their hollow children are destroyed in turn.
+        Heap.HeapNode[] ranksArray = this.ranksTable();
+        int maxRank = -1;
+        Heap.HeapNode h = this.root;
+        h.next = null;
+        while (h != null) {
+            Heap.HeapNode w = h.child;
+            Heap.HeapNode v = h;
+            h = h.next;
+            while (w != null) {
+                Heap.HeapNode u = w;
+                w = w.next;
+                if (u.item == null) {
+                    if (u.parent == null) {
+                        u.next = h;
+                        h = u;
+                    } else {
+                        if (u.parent == v) {
+                            w = null; // u is v's last child, its next is in its first parent's list
+                        } else {
+                            u.next = null;
+                        }
+                        u.parent = null;
+                    }
+                } else {
+                    u.next = null;
+                    while (true) {
+                        int rank = u.rank;
+                        if (rank >= ranksArray.length) {
+                            ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * rank + 1);
+                        }
+                        if (ranksArray[rank] == null) {
+                            break;
+                        }
+                        u = this.link(u, ranksArray[rank]);
+                        ranksArray[rank] = null;
+                        u.rank = rank + 1;
+                    }
+                    ranksArray[u.rank] = u;
+                    if (u.rank > maxRank) {
+                        maxRank = u.rank;
+                    }
+                }
+            }
+            v.child = null;
+            v.next = null;
+            this.numHollowNodes--;
+        }
+
+        // Link the remaining trees into one, clearing the table for the next call
+        this.root = null;
+        for (int rank = 0; rank <= maxRank; rank++) {
+            if (ranksArray[rank] != null) {
+                this.root = this.meldRoot(ranksArray[rank]);
+                ranksArray[rank] = null;
+            }
+        }
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, linking the two roots.
+     *
+     */
+    public void meld(HeapHollow heap2)
+    {
+        if (heap2 == null || heap2.root == null) {
+            return;
+        }
+        this.root = this.meldRoot(heap2.root);
+        this.size += heap2.size;
+        this.numHollowNodes += heap2.numHollowNodes;
+        this.totalLinks += heap2.totalLinks;
+    }
+
+    private Heap.HeapNode newNode(Heap.HeapItem item) {
+        Heap.HeapNode node = new Heap.HeapNode(item);
+        item.node = node;
+        node.next = null;
+        node.prev = null;
+        return node;
+    }
+
+    private Heap.HeapNode meldRoot(Heap.HeapNode node) {
+        return (this.root == null) ? node : this.link(node, this.root);
+    }
+
+    /**
+     * link two full trees, making the root with the larger key the first child
+     * of the other. Ranks are not changed. Return the new root.
+     */
+    private Heap.HeapNode link(Heap.HeapNode v, Heap.HeapNode w) {
+        this.totalLinks++;
+        if (v.item.key >= w.item.key) {
+            v.next = w.child;
+            w.child = v;
+            return w;
+        } else {
+            w.next = v.child;
+            v.child = w;
+            return v;
+        }
+    }
+
+    /**
+     * Return the ranks table, grown if needed to hold every rank possible for
+     * the current number of nodes. The table is all null between deletions.
+     */
+    private Heap.HeapNode[] ranksTable() {
+        int nodes = this.size + this.numHollowNodes;
+        int bound = 2 * (32 - Integer.numberOfLeadingZeros(nodes)) + 3;
+        if (this.ranksTable.length < bound) {
+            this.ranksTable = new Heap.HeapNode[bound];
+        }
+        return this.ranksTable;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of hollow nodes still in the heap.
+     *
+     */
+    public int numHollowNodes()
+    {
+        return this.numHollowNodes;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap, at most one.
+     *
+     */
+    public int numTrees()
+    {
+        return (this.root == null) ? 0 : 1;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts, always 0.
+     *
+     */
+    public int totalCuts()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total heapify costs, always 0.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return 0;
+    }
+}
@@ -0,0 +1,522 @@
+import java.util.Arrays;
+
+/**
+ * HeapLong
+ *
+ * A sibling of Heap keyed by primitive longs, with the same lazyMelds and
+ * lazyDecreaseKeys flags and the same counters. Keys may be any long value.
+ * delete(x) moves x to the top of the heap as if its key were negative
+ * infinity, without touching its key, so no key value is reserved.
+ *
+ */
+public class HeapLong
+{
+    public final boolean lazyMelds;
+    public final boolean lazyDecreaseKeys;
+    public HeapItem min;
+    public HeapNode firstRoot;
+    public int numTrees;
+    public int size;
+    public int totalLinks;
+    public int totalCuts;
+    public int totalHeapifyCosts;
+    public int _numMarkedNodes;
+    private HeapNode[] ranksTable = new HeapNode[0];
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapLong(boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        this.lazyMelds = lazyMelds;
+        this.lazyDecreaseKeys = lazyDecreaseKeys;
+    }
+
+    /**
+     *
+     * Insert (key,info) into the heap and return the newly generated HeapItem.
+     *
+     */
+    public HeapItem insert(long key, String info)
+    {
+        HeapItem item = new HeapItem(key, info);
+        HeapNode node = new HeapNode(item);
+        item.node = node;
+
+        this.size++;
+        if (this.min == null) {
+            this.min = item;
+            this.numTrees = 1;
+            this.firstRoot = node;
+            return item;
+        }
+        this.addRoot(node);
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal HeapItem, null if empty.
+     *
+     */
+    public HeapItem findMin()
+    {
+        return this.min;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        if (this.min == null) {
+            return;
+        }
+        HeapNode min_node = this.min.node;
+        // A child promoted by an earlier deleteMin may be a marked root
+        if (min_node.mark) {
+            min_node.mark = false;
+            this._numMarkedNodes--;
+        }
+
+        if (this.size == 1) {
+            this.min = null;
+            this.numTrees = 0;
+            this.size = 0;
+            this.firstRoot = null;
+            return;
+        }
+
+        // Promote the children of min to roots
+        HeapNode child = min_node.child;
+        if (child != null) {
+            HeapNode firstChild = child;
+            do {
+                child.parent = null;
+                child = child.next;
+            } while (child != firstChild);
+        }
+
+        if (min_node.next == min_node) {
+            // min is the only root
+            this.min = child.item;
+            this.numTrees = min_node.rank;
+        } else {
+            // Remove min from the root list and splice its children in its place
+            HeapNode someRoot = min_node.next;
+            min_node.prev.next = min_node.next;
+            min_node.next.prev = min_node.prev;
+            if (child != null) {
+                this.appendNodes(someRoot, child);
+            }
+            this.numTrees = this.numTrees - 1 + min_node.rank;
+            this.min = someRoot.item;
+        }
+        min_node.next = min_node;
+        min_node.prev = min_node;
+        min_node.child = null;
+        min_node.rank = 0;
+        this.size--;
+
+        // Scan root list to find the true minimum before consolidation
+        HeapNode scanNode = this.min.node;
+        HeapNode scanStart = scanNode;
+        do {
+            if (scanNode.item.key < this.min.key) {
+                this.min = scanNode.item;
+            }
+            scanNode = scanNode.next;
+        } while (scanNode != scanStart);
+
+        this.consolidate();
+    }
+
+    /**
+     *
+     * pre: 0<=diff and x.key-diff does not overflow
+     *
+     * Decrease the key of x by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(HeapItem x, long diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        if (x.key - diff > x.key) {
+            throw new IllegalArgumentException("key - diff overflows");
+        }
+        x.key -= diff;
+        HeapNode parent = x.node.parent;
+        if (parent != null && x.key < parent.item.key) {
+            if (lazyDecreaseKeys) {
+                cascadingCut(x.node, false);
+            } else {
+                heapify_up(x.node, false);
+            }
+        }
+        if (x.key < this.min.key) {
+            this.min = x;
+        }
+        syncFirstRoot();
+    }
+
+    /**
+     *
+     * Delete the x from the heap.
+     *
+     */
+    public void delete(HeapItem x)
+    {
+        // Bring x to the root list as if its key were negative infinity
+        if (x.node.parent != null) {
+            if (lazyDecreaseKeys) {
+                cascadingCut(x.node, true);
+            } else {
+                heapify_up(x.node, true);
+            }
+        }
+        this.min = x;
+        this.deleteMin();
+    }
+
+    /**
+     * Swap the item of node with its parent's while it is smaller, or all the
+     * way to the root when toRoot is set.
+     */
+    private void heapify_up(HeapNode node, boolean toRoot) {
+        HeapNode parent = node.parent;
+        while (parent != null && (toRoot || node.item.key < parent.item.key)) {
+            HeapItem temp = node.item;
+            node.item = parent.item;
+            parent.item = temp;
+            node.item.node = node;
+            parent.item.node = parent;
+
+            node = parent;
+            parent = node.parent;
+            this.totalHeapifyCosts++;
+        }
+    }
+
+    /**
+     * Cut node from its parent and keep cutting up the chain of marked ancestors,
+     * iteratively. With lazy melds the cut nodes are spliced into the root list once;
+     * otherwise every cut is melded and consolidated on its own, as in Heap.
+     * When deleting, node is about to become the min and be removed, so the cuts are
+     * always spliced at once: consolidating could link node below a smaller root.
+     */
+    private void cascadingCut(HeapNode node, boolean deleting) {
+        boolean batch = lazyMelds || deleting;
+        HeapNode first = node;
+        HeapNode parent;
+        while (true) {
+            parent = node.parent;
+
+            // Remove node from its sibling list
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            if (parent.child == node) {
+                parent.child = (node.next != node) ? node.next : null;
+            }
+            parent.rank--;
+
+            node.parent = null;
+            node.next = node;
+            node.prev = node;
+            if (batch) {
+                if (node != first) {
+                    this.appendNodes(first, node);
+                }
+                this.numTrees++;
+            } else {
+                this.addRoot(node);
+            }
+            this.totalCuts++;
+
+            if (node.mark) {
+                node.mark = false;
+                this._numMarkedNodes--;
+            }
+
+            if (parent.parent == null) {
+                break;
+            }
+            if (!parent.mark) {
+                parent.mark = true;
+                this._numMarkedNodes++;
+                break;
+            }
+            node = parent;
+        }
+
+        if (batch) {
+            if (deleting || first.item.key < this.min.key) {
+                this.appendNodes(this.min.node, first.prev);
+                this.min = first.item;
+            } else {
+                this.appendNodes(this.min.node, first);
+            }
+            syncFirstRoot();
+        }
+    }
+
+    /**
+     *
+     * Meld the heap with heap2
+     * pre: heap2.lazyMelds = this.lazyMelds AND heap2.lazyDecreaseKeys = this.lazyDecreaseKeys
+     *
+     */
+    public void meld(HeapLong heap2)
+    {
+        if (heap2 == null || heap2.min == null) {
+            return;
+        }
+        if (this.min == null) {
+            this.min = heap2.min;
+            this.size = heap2.size;
+            this.numTrees = heap2.numTrees;
+            this.totalLinks = heap2.totalLinks;
+            this.totalCuts = heap2.totalCuts;
+            this.totalHeapifyCosts = heap2.totalHeapifyCosts;
+            this._numMarkedNodes = heap2._numMarkedNodes;
+            syncFirstRoot();
+            return;
+        }
+
+        appendNodes(this.min.node, heap2.min.node);
+        if (heap2.min.key < this.min.key) {
+            this.min = heap2.min;
+        }
+        this.size += heap2.size;
+        this.numTrees += heap2.numTrees;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        this._numMarkedNodes += heap2._numMarkedNodes;
+
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+        syncFirstRoot();
+    }
+
+    /**
+     * Adds a single detached node to the root list of a non-empty heap,
+     * consolidating when melds are not lazy.
+     */
+    private void addRoot(HeapNode node) {
+        appendNodes(this.min.node, node);
+        if (node.item.key < this.min.key) {
+            this.min = node.item;
+        }
+        this.numTrees++;
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+        syncFirstRoot();
+    }
+
+    /**
+     * Consolidate function joins trees of the same rank, leaving only one tree for each rank.
+     * A copy of Heap.consolidate() over this class's nodes: a fix to one belongs in both.
+     */
+    private void consolidate() {
+        HeapNode[] ranksArray = this.ranksTable;
+        int bound = Heap.rankBound(this.size);
+        if (ranksArray.length < bound) {
+            ranksArray = this.ranksTable = new HeapNode[bound];
+        }
+
+        int roots = this.numTrees;
+        int maxRank = 0;
+        HeapNode curr_root = this.min.node;
+        for (int i = 0; i < roots; i++) {
+            HeapNode next = curr_root.next;
+            int curr_rank = curr_root.rank;
+            while (ranksArray[curr_rank] != null) {
+                curr_root = this.link(ranksArray[curr_rank], curr_root);
+                ranksArray[curr_rank] = null;
+                curr_rank = curr_root.rank;
+                if (curr_rank == ranksArray.length) {
+                    ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * curr_rank + 1);
+                }
+            }
+            ranksArray[curr_rank] = curr_root;
+            if (curr_rank > maxRank) {
+                maxRank = curr_rank;
+            }
+            curr_root = next;
+        }
+
+        this.min = null;
+        this.numTrees = 0;
+        for (int rank = 0; rank <= maxRank; rank++) {
+            HeapNode node = ranksArray[rank];
+            if (node != null) {
+                ranksArray[rank] = null;
+                this.numTrees++;
+                node.next = node;
+                node.prev = node;
+                if (this.min == null) {
+                    this.min = node.item;
+                } else {
+                    this.appendNodes(this.min.node, node);
+                    if (node.item.key < this.min.key) {
+                        this.min = node.item;
+                    }
+                }
+            }
+        }
+        syncFirstRoot();
+    }
+
+    /**
+     * link two trees of the same rank, moving on tree to be the child of the other
+     */
+    private HeapNode link(HeapNode node1, HeapNode node2) {
+        HeapNode parent, newChild;
+        if (node1.item.key < node2.item.key) {
+            parent = node1;
+            newChild = node2;
+        } else {
+            parent = node2;
+            newChild = node1;
+        }
+        newChild.prev.next = newChild.next;
+        newChild.next.prev = newChild.prev;
+        newChild.next = newChild;
+        newChild.prev = newChild;
+
+        if (newChild.mark) {
+            newChild.mark = false;
+            this._numMarkedNodes--;
+        }
+
+        newChild.parent = parent;
+        if (parent.child == null) {
+            parent.child = newChild;
+        } else {
+            this.appendNodes(parent.child, newChild);
+        }
+        parent.rank++;
+        this.numTrees--;
+        this.totalLinks++;
+        return parent;
+    }
+
+    /**
+     * Splice the circular list of node2 into the circular list of node1, right after node1.
+     */
+    private void appendNodes(HeapNode node1, HeapNode node2) {
+        HeapNode next1 = node1.next;
+        HeapNode next2 = node2.next;
+        node1.next = next2;
+        next2.prev = node1;
+        node2.next = next1;
+        next1.prev = node2;
+    }
+
+    private void syncFirstRoot() {
+        this.firstRoot = (this.min != null) ? this.min.node : null;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numTrees;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return this._numMarkedNodes;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total heapify costs.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+
+    /**
+     * Class implementing a node in a HeapLong.
+     *
+     */
+    public static class HeapNode {
+        public HeapItem item;
+        public HeapNode child;
+        public HeapNode next;
+        public HeapNode prev;
+        public HeapNode parent;
+        public int rank;
+        public boolean mark;
+
+        public HeapNode(HeapItem item) {
+            this.item = item;
+            this.next = this;
+            this.prev = this;
+        }
+    }
+
+    /**
+     * Class implementing an item in a HeapLong.
+     *
+     */
+    public static class HeapItem {
+        public HeapNode node;
+        public long key;
+        public String info;
+
+        public HeapItem(long key, String info) {
+            this.key = key;
+            this.info = info;
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Supplier;
 
 public class HeapMegaTester {
 
@@ -6,16 +7,14 @@ public class HeapMegaTester {
     static class TestResult {
         int id;
         String name;
-        boolean lazyMelds;
-        boolean lazyDecreaseKeys;
+        String config;
         boolean passed;
         String message;
 
-        TestResult(int id, String name, boolean lm, boolean ld, boolean passed, String msg) {
+        TestResult(int id, String name, String config, boolean passed, String msg) {
             this.id = id;
             this.name = name;
-            this.lazyMelds = lm;
-            this.lazyDecreaseKeys = ld;
+            this.config = config;
             this.passed = passed;
             this.message = msg;
         }
@@ -34,7 +33,7 @@ public class HeapMegaTester {
             throw new RuntimeException(msg + " | expected=" + exp + ", got=" + got);
     }
 
-    private static void checkMin(Heap h, Integer expected, String msg) {
+    private static void checkMin(AddressableHeap<?> h, Integer expected, String msg) {
         Heap.HeapItem m = h.findMin();
         if (expected == null) {
             if (m != null)
@@ -47,32 +46,32 @@ public class HeapMegaTester {
     }
 
     // ===== RUNNER =====
-    private static void runTest(String name, boolean lm, boolean ld, Runnable test) {
+    private static void runTest(String name, String config, Runnable test) {
         int id = ++testCounter;
         try {
             test.run();
-            results.add(new TestResult(id, name, lm, ld, true, "OK"));
+            results.add(new TestResult(id, name, config, true, "OK"));
             System.out.println("[" + id + "] ✔ \u001B[32m" + name +
-                    "\u001B[0m (lazyMelds=" + lm + ", lazyDecreaseKeys=" + ld + ")");
+                    "\u001B[0m (" + config + ")");
         } catch (Throwable e) {
-            results.add(new TestResult(id, name, lm, ld, false, e.getMessage()));
+            results.add(new TestResult(id, name, config, false, e.getMessage()));
             System.out.println("[" + id + "] ✘ \u001B[31m" + name +
-                    "\u001B[0m (lazyMelds=" + lm + ", lazyDecreaseKeys=" + ld + ")");
+                    "\u001B[0m (" + config + ")");
         }
     }
 
     // ===== TESTS =====
 
-    private static void testEmptyHeap(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testEmptyHeap(Supplier<H> engine) {
+        H h = engine.get();
         checkEquals(0, h.size(), "empty size");
         checkMin(h, null, "empty min");
         checkEquals(0, h.numTrees(), "empty numTrees");
         checkEquals(0, h.numMarkedNodes(), "empty numMarked");
     }
 
-    private static void testSingleInsertDelete(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testSingleInsertDelete(Supplier<H> engine) {
+        H h = engine.get();
         h.insert(5, "");
         checkEquals(1, h.size(), "single insert size");
         checkMin(h, 5, "single insert min");
@@ -81,8 +80,8 @@ public class HeapMegaTester {
         checkMin(h, null, "single deleteMin min");
     }
 
-    private static void testDeleteMinOrder(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testDeleteMinOrder(Supplier<H> engine) {
+        H h = engine.get();
         int[] arr = {7, 1, 9, 3, 5};
         for (int x : arr) h.insert(x, "");
         Arrays.sort(arr);
@@ -93,16 +92,16 @@ public class HeapMegaTester {
         checkEquals(0, h.size(), "deleteMin drains heap");
     }
 
-    private static void testDecreaseKey(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testDecreaseKey(Supplier<H> engine) {
+        H h = engine.get();
         Heap.HeapItem a = h.insert(10, "");
         Heap.HeapItem b = h.insert(20, "");
         h.decreaseKey(b, 15); // becomes 5
         checkMin(h, 5, "decreaseKey min");
     }
 
-    private static void testDeleteArbitrary(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testDeleteArbitrary(Supplier<H> engine) {
+        H h = engine.get();
         Heap.HeapItem a = h.insert(10, "");
         Heap.HeapItem b = h.insert(5, "");
         Heap.HeapItem c = h.insert(20, "");
@@ -111,9 +110,9 @@ public class HeapMegaTester {
         checkMin(h, 10, "delete(x) min");
     }
 
-    private static void testMeld(boolean lm, boolean ld) {
-        Heap h1 = new Heap(lm, ld);
-        Heap h2 = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void testMeld(Supplier<H> engine) {
+        H h1 = engine.get();
+        H h2 = engine.get();
         h1.insert(10, "");
         h1.insert(3, "");
         h2.insert(7, "");
@@ -123,8 +122,8 @@ public class HeapMegaTester {
         checkMin(h1, 1, "meld min");
     }
 
-    private static void stressTest(boolean lm, boolean ld) {
-        Heap h = new Heap(lm, ld);
+    private static <H extends AddressableHeap<H>> void stressTest(Supplier<H> engine) {
+        H h = engine.get();
         PriorityQueue<Integer> pq = new PriorityQueue<>();
         Random rnd = new Random(42);
         List<Heap.HeapItem> items = new ArrayList<>();
@@ -152,6 +151,16 @@ public class HeapMegaTester {
         }
     }
 
+    private static <H extends AddressableHeap<H>> void runAll(String config, Supplier<H> engine) {
+        runTest("Empty heap", config, () -> testEmptyHeap(engine));
+        runTest("Single insert + deleteMin", config, () -> testSingleInsertDelete(engine));
+        runTest("DeleteMin order", config, () -> testDeleteMinOrder(engine));
+        runTest("DecreaseKey", config, () -> testDecreaseKey(engine));
+        runTest("Delete arbitrary node", config, () -> testDeleteArbitrary(engine));
+        runTest("Meld", config, () -> testMeld(engine));
+        runTest("Stress test", config, () -> stressTest(engine));
+    }
+
     // ===== MAIN =====
     public static void main(String[] args) {
         boolean[] flags = {false, true};
@@ -160,16 +169,15 @@ public class HeapMegaTester {
 
         for (boolean lm : flags) {
             for (boolean ld : flags) {
-
-                runTest("Empty heap", lm, ld, () -> testEmptyHeap(lm, ld));
-                runTest("Single insert + deleteMin", lm, ld, () -> testSingleInsertDelete(lm, ld));
-                runTest("DeleteMin order", lm, ld, () -> testDeleteMinOrder(lm, ld));
-                runTest("DecreaseKey", lm, ld, () -> testDecreaseKey(lm, ld));
-                runTest("Delete arbitrary node", lm, ld, () -> testDeleteArbitrary(lm, ld));
-                runTest("Meld", lm, ld, () -> testMeld(lm, ld));
-                runTest("Stress test", lm, ld, () -> stressTest(lm, ld));
+                runAll("lazyMelds=" + lm + ", lazyDecreaseKeys=" + ld, () -> new Heap(lm, ld));
             }
         }
+        runAll("HeapPairing", HeapPairing::new);
+        runAll("HeapHollow", HeapHollow::new);
+        runAll("HeapRankPairing type-1", () -> new HeapRankPairing(false));
+        runAll("HeapRankPairing type-2", () -> new HeapRankPairing(true));
+        runAll("HeapDary d=4", () -> new HeapDary(4));
+        runAll("HeapBucket maxKey=2^14", () -> new HeapBucket(1 << 14));
 
         // ===== SUMMARY =====
         long passed = results.stream().filter(r -> r.passed).count();
@@ -185,8 +193,7 @@ public class HeapMegaTester {
             for (TestResult r : results) {
                 if (!r.passed) {
                     System.out.println("[" + r.id + "] " + r.name +
-                            " (lazyMelds=" + r.lazyMelds +
-                            ", lazyDecreaseKeys=" + r.lazyDecreaseKeys + ")");
+                            " (" + r.config + ")");
                     System.out.println("    Reason: " + r.message);
                 }
             }
@@ -0,0 +1,189 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HeapMultiQueue
+ *
+ * A relaxed concurrent priority queue (a MultiQueue, Rihani, Sanders and
+ * Dementiev) made of Heap shards, each behind its own lock. insert puts the
+ * item in a random shard, and deleteMin takes the minimum of the better of
+ * two random shards, so deleteMin returns one of the smallest keys rather
+ * than the smallest. Locks are only tried: a thread that finds a shard
+ * busy picks other shards instead of waiting.
+ *
+ * The relaxation is set by the number of shards. With c shards per thread
+ * the expected rank of a deleted key is O(c * threads); one shard gives an
+ * exact (and fully serialised) queue.
+ *
+ * Each shard publishes the key of its minimum in a volatile field, so that
+ * deleteMin compares two shards without locking them. The field is a long,
+ * so that an empty shard has a value no int key can take.
+ *
+ */
+public class HeapMultiQueue
+{
+    private static final long EMPTY = Long.MAX_VALUE;
+
+    private final Shard[] shards;
+
+    private static final class Shard
+    {
+        final ReentrantLock lock = new ReentrantLock();
+        final Heap heap;
+        volatile long minKey = EMPTY; // heap.findMin().key, EMPTY if empty
+
+        Shard(boolean lazyMelds, boolean lazyDecreaseKeys) {
+            this.heap = new Heap(lazyMelds, lazyDecreaseKeys);
+        }
+
+        void publishMin() {
+            Heap.HeapItem min = this.heap.findMin();
+            this.minKey = (min == null) ? EMPTY : min.key;
+        }
+    }
+
+    /**
+     *
+     * pre: numShards >= 1
+     *
+     * Constructor to initialize an empty queue of numShards shards, each a Heap
+     * with the given flags.
+     *
+     */
+    public HeapMultiQueue(int numShards, boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        if (numShards < 1) {
+            throw new IllegalArgumentException("numShards must be >= 1");
+        }
+        this.shards = new Shard[numShards];
+        for (int i = 0; i < numShards; i++) {
+            this.shards[i] = new Shard(lazyMelds, lazyDecreaseKeys);
+        }
+    }
+
+    /**
+     *
+     * Return an empty queue for the given number of threads, with c shards per
+     * thread (c = 2 is the usual choice), using Fibonacci heap shards.
+     *
+     */
+    public static HeapMultiQueue forThreads(int threads, int c)
+    {
+        return new HeapMultiQueue(Math.max(1, threads * c), true, true);
+    }
+
+    /**
+     *
+     * Return the number of shards.
+     *
+     */
+    public int numShards()
+    {
+        return this.shards.length;
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into a random shard.
+     *
+     */
+    public void insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard shard = this.shards[random.nextInt(this.shards.length)];
+            if (shard.lock.tryLock()) {
+                try {
+                    shard.heap.insert(key, info);
+                    if (key < shard.minKey) {
+                        shard.minKey = key;
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     *
+     * Delete and return an item with a small key: the minimum of the better of
+     * two random shards. Return null if every shard was found empty.
+     *
+     */
+    public Heap.HeapItem deleteMin()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int n = this.shards.length;
+        while (true) {
+            Shard shard = this.shards[random.nextInt(n)];
+            if (n > 1) {
+                Shard other = this.shards[random.nextInt(n)];
+                if (other.minKey < shard.minKey) {
+                    shard = other;
+                }
+            }
+            if (shard.minKey == EMPTY) {
+                if (this.isEmpty()) {
+                    return null;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            if (shard.lock.tryLock()) {
+                try {
+                    Heap.HeapItem min = shard.heap.findMin();
+                    if (min != null) {
+                        shard.heap.deleteMin();
+                        shard.publishMin();
+                        return min;
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     *
+     * Return true if every shard was empty when it was looked at.
+     *
+     */
+    public boolean isEmpty()
+    {
+        for (Shard shard : this.shards) {
+            if (shard.minKey != EMPTY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *
+     * Return the number of items, exact only when no other thread is changing the queue.
+     *
+     */
+    public int size()
+    {
+        int size = 0;
+        for (Shard shard : this.shards) {
+            shard.lock.lock();
+            try {
+                size += shard.heap.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return size;
+    }
+}
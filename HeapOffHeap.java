@@ -0,0 +1,770 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * HeapOffHeap
+ *
+ * The HeapArrays engine with its node records stored outside the Java heap,
+ * in direct ByteBuffers, so the garbage collector never traces the nodes:
+ * the heap object only holds a small array of buffer references. Same flags,
+ * counters, int handles and handle reuse rules as HeapArrays.
+ *
+ * Records are 8 ints (32 bytes) in chunks of 2^16 records, so the heap can
+ * grow past the 2GB limit of a single buffer. The record of handle h also
+ * stores the slot of h when heapify_up moves items between slots.
+ *
+ * close() frees the native memory right away; the heap must not be used
+ * afterwards. meld frees heap2's memory the same way once its records are
+ * copied. Without close() the memory is freed when the heap becomes
+ * unreachable, like any direct buffer.
+ *
+ * Java 17 has no public way to free a direct buffer early (java.lang.foreign
+ * arenas are final only from Java 22), so the early free goes through
+ * sun.misc.Unsafe.invokeCleaner, a JDK-internal method of the jdk.unsupported
+ * module, found by reflection. Where it is missing or inaccessible, close()
+ * and meld still drop the buffers and the collector frees them later.
+ *
+ */
+public class HeapOffHeap implements AutoCloseable
+{
+    public static final int NIL = -1;
+
+    // int fields of a record
+    private static final int KEY = 0;
+    private static final int PARENT = 1;
+    private static final int CHILD = 2;
+    private static final int NEXT = 3;
+    private static final int PREV = 4;
+    private static final int RANK = 5;    // rank, with the mark in the sign bit
+    private static final int HANDLE = 6;  // handle of the item in this slot (slot -> handle)
+    private static final int SLOT = 7;    // slot of the item whose handle is this record's index (handle -> slot)
+    private static final int RECORD_INTS = 8;
+    private static final int MARK_BIT = 1 << 31;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    public final boolean lazyMelds;
+    public final boolean lazyDecreaseKeys;
+    private IntBuffer[] chunks = new IntBuffer[0];
+    private ByteBuffer[] buffers = new ByteBuffer[0];
+    private int used;
+    private int freeSlot = NIL;
+    private int freeHandle = NIL;
+    private int min = NIL;
+    private int numTrees;
+    private int size;
+    private int totalLinks;
+    private int totalCuts;
+    private int totalHeapifyCosts;
+    private int _numMarkedNodes;
+    private int[] ranksTable = new int[0];
+    private boolean closed;
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapOffHeap(boolean lazyMelds, boolean lazyDecreaseKeys)
+    {
+        this.lazyMelds = lazyMelds;
+        this.lazyDecreaseKeys = lazyDecreaseKeys;
+    }
+
+    // ===== RECORD ACCESS =====
+
+    private int get(int s, int field) {
+        return this.chunks[s >>> CHUNK_BITS].get((s & CHUNK_MASK) * RECORD_INTS + field);
+    }
+
+    private void set(int s, int field, int value) {
+        this.chunks[s >>> CHUNK_BITS].put((s & CHUNK_MASK) * RECORD_INTS + field, value);
+    }
+
+    private int rank(int s) {
+        return get(s, RANK) & ~MARK_BIT;
+    }
+
+    private void addRank(int s, int delta) {
+        set(s, RANK, get(s, RANK) + delta);
+    }
+
+    private boolean isMarked(int s) {
+        return (get(s, RANK) & MARK_BIT) != 0;
+    }
+
+    private void setMarked(int s, boolean value) {
+        int r = get(s, RANK);
+        set(s, RANK, value ? (r | MARK_BIT) : (r & ~MARK_BIT));
+    }
+
+    private int slot(int h) {
+        return this.lazyDecreaseKeys ? h : get(h, SLOT);
+    }
+
+    private int handle(int s) {
+        return this.lazyDecreaseKeys ? s : get(s, HANDLE);
+    }
+
+    // ===== OPERATIONS =====
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert key into the heap and return the handle of the new item.
+     *
+     */
+    public int insert(int key)
+    {
+        this.checkOpen();
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        int s = this.allocate();
+        set(s, KEY, key);
+        set(s, PARENT, NIL);
+        set(s, CHILD, NIL);
+        set(s, NEXT, s);
+        set(s, PREV, s);
+        set(s, RANK, 0);
+        int h = s;
+        if (!this.lazyDecreaseKeys) {
+            if (this.freeHandle != NIL) {
+                h = this.freeHandle;
+                this.freeHandle = get(h, SLOT);
+            }
+            set(h, SLOT, s);
+            set(s, HANDLE, h);
+        }
+
+        this.size++;
+        if (this.min == NIL) {
+            this.min = s;
+            this.numTrees = 1;
+            return h;
+        }
+        this.addRoot(s);
+        return h;
+    }
+
+    /**
+     *
+     * Return the handle of the minimal item, NIL if empty.
+     *
+     */
+    public int findMin()
+    {
+        this.checkOpen();
+        return this.min == NIL ? NIL : this.handle(this.min);
+    }
+
+    /**
+     *
+     * Return the key of the item with handle h.
+     *
+     */
+    public int key(int h)
+    {
+        this.checkOpen();
+        return get(this.slot(h), KEY);
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        this.checkOpen();
+        int m = this.min;
+        if (m == NIL) {
+            return;
+        }
+        // A child promoted by an earlier deleteMin may be a marked root
+        if (isMarked(m)) {
+            setMarked(m, false);
+            this._numMarkedNodes--;
+        }
+        if (this.size == 1) {
+            this.release(m);
+            this.min = NIL;
+            this.numTrees = 0;
+            this.size = 0;
+            return;
+        }
+
+        // Promote the children of min to roots
+        int c = get(m, CHILD);
+        if (c != NIL) {
+            int s = c;
+            do {
+                set(s, PARENT, NIL);
+                s = get(s, NEXT);
+            } while (s != c);
+        }
+
+        int mNext = get(m, NEXT);
+        if (mNext == m) {
+            this.min = c;
+            this.numTrees = rank(m);
+        } else {
+            int mPrev = get(m, PREV);
+            set(mPrev, NEXT, mNext);
+            set(mNext, PREV, mPrev);
+            if (c != NIL) {
+                this.appendNodes(mNext, c);
+            }
+            this.numTrees = this.numTrees - 1 + rank(m);
+            this.min = mNext;
+        }
+        this.release(m);
+        this.size--;
+
+        // Scan root list to find the true minimum before consolidation
+        int start = this.min;
+        int minKey = get(start, KEY);
+        int s = start;
+        do {
+            int k = get(s, KEY);
+            if (k < minKey) {
+                this.min = s;
+                minKey = k;
+            }
+            s = get(s, NEXT);
+        } while (s != start);
+
+        this.consolidate();
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=key(h)
+     *
+     * Decrease the key of the item with handle h by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(int h, int diff)
+    {
+        this.checkOpen();
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        int s = this.slot(h);
+        int k = get(s, KEY) - diff;
+        set(s, KEY, k);
+        int p = get(s, PARENT);
+        if (p != NIL && k < get(p, KEY)) {
+            if (lazyDecreaseKeys) {
+                this.cascadingCut(s, false);
+            } else {
+                s = this.heapify_up(s, false);
+            }
+        }
+        if (k < get(this.min, KEY)) {
+            this.min = s;
+        }
+    }
+
+    /**
+     *
+     * Delete the item with handle h from the heap.
+     *
+     */
+    public void delete(int h)
+    {
+        this.checkOpen();
+        // Bring the item to the root list as if its key were negative infinity
+        int s = this.slot(h);
+        if (get(s, PARENT) != NIL) {
+            if (lazyDecreaseKeys) {
+                this.cascadingCut(s, true);
+            } else {
+                s = this.heapify_up(s, true);
+            }
+        }
+        this.min = s;
+        this.deleteMin();
+    }
+
+    /**
+     * Swap the item in slot s with its parent's while it is smaller, or all the
+     * way to the root when toRoot is set. Return the slot the item ends up in.
+     */
+    private int heapify_up(int s, boolean toRoot) {
+        int p = get(s, PARENT);
+        int k = get(s, KEY);
+        int h = get(s, HANDLE);
+        while (p != NIL && (toRoot || k < get(p, KEY))) {
+            int ph = get(p, HANDLE);
+            set(s, KEY, get(p, KEY));
+            set(s, HANDLE, ph);
+            set(ph, SLOT, s);
+
+            s = p;
+            p = get(s, PARENT);
+            this.totalHeapifyCosts++;
+        }
+        set(s, KEY, k);
+        set(s, HANDLE, h);
+        set(h, SLOT, s);
+        return s;
+    }
+
+    /**
+     * Cut slot s from its parent and keep cutting up the chain of marked ancestors,
+     * iteratively, as in HeapArrays.
+     */
+    private void cascadingCut(int s, boolean deleting) {
+        boolean batch = lazyMelds || deleting;
+        int first = s;
+        while (true) {
+            int p = get(s, PARENT);
+            int sNext = get(s, NEXT);
+            int sPrev = get(s, PREV);
+
+            set(sPrev, NEXT, sNext);
+            set(sNext, PREV, sPrev);
+            if (get(p, CHILD) == s) {
+                set(p, CHILD, (sNext != s) ? sNext : NIL);
+            }
+            addRank(p, -1);
+
+            set(s, PARENT, NIL);
+            set(s, NEXT, s);
+            set(s, PREV, s);
+            if (batch) {
+                if (s != first) {
+                    this.appendNodes(first, s);
+                }
+                this.numTrees++;
+            } else {
+                this.addRoot(s);
+            }
+            this.totalCuts++;
+
+            if (isMarked(s)) {
+                setMarked(s, false);
+                this._numMarkedNodes--;
+            }
+
+            if (get(p, PARENT) == NIL) {
+                break;
+            }
+            if (!isMarked(p)) {
+                setMarked(p, true);
+                this._numMarkedNodes++;
+                break;
+            }
+            s = p;
+        }
+
+        if (batch) {
+            if (deleting || get(first, KEY) < get(this.min, KEY)) {
+                this.appendNodes(this.min, get(first, PREV));
+                this.min = first;
+            } else {
+                this.appendNodes(this.min, first);
+            }
+        }
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, which is left empty (but open) with its native
+     * memory freed. The records of heap2 are copied into this heap: a handle h
+     * of heap2 becomes h + offset in this heap, where offset is returned.
+     * pre: heap2.lazyMelds = this.lazyMelds AND heap2.lazyDecreaseKeys = this.lazyDecreaseKeys
+     *
+     */
+    public int meld(HeapOffHeap heap2)
+    {
+        this.checkOpen();
+        int offset = this.used;
+        if (heap2 == null || heap2.used == 0) {
+            return offset;
+        }
+        heap2.checkOpen();
+        int n = heap2.used;
+        this.ensureCapacity(offset + n);
+        for (int s = 0; s < n; s++) {
+            int t = s + offset;
+            set(t, KEY, heap2.get(s, KEY));
+            set(t, RANK, heap2.get(s, RANK));
+            for (int field = PARENT; field <= PREV; field++) {
+                int v = heap2.get(s, field);
+                set(t, field, v == NIL ? NIL : v + offset);
+            }
+            if (!this.lazyDecreaseKeys) {
+                int v = heap2.get(s, HANDLE);
+                set(t, HANDLE, v == NIL ? NIL : v + offset);
+                v = heap2.get(s, SLOT);
+                set(t, SLOT, v == NIL ? NIL : v + offset);
+            }
+        }
+        this.used = offset + n;
+
+        // Chain heap2's free lists in front of ours
+        if (heap2.freeSlot != NIL) {
+            int s = heap2.freeSlot + offset;
+            while (get(s, NEXT) != NIL) {
+                s = get(s, NEXT);
+            }
+            set(s, NEXT, this.freeSlot);
+            this.freeSlot = heap2.freeSlot + offset;
+        }
+        if (heap2.freeHandle != NIL) {
+            int h = heap2.freeHandle + offset;
+            while (get(h, SLOT) != NIL) {
+                h = get(h, SLOT);
+            }
+            set(h, SLOT, this.freeHandle);
+            this.freeHandle = heap2.freeHandle + offset;
+        }
+
+        if (heap2.min != NIL) {
+            int min2 = heap2.min + offset;
+            if (this.min == NIL) {
+                this.min = min2;
+                this.numTrees = heap2.numTrees;
+            } else {
+                this.appendNodes(this.min, min2);
+                if (get(min2, KEY) < get(this.min, KEY)) {
+                    this.min = min2;
+                }
+                this.numTrees += heap2.numTrees;
+            }
+        }
+        this.size += heap2.size;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        this._numMarkedNodes += heap2._numMarkedNodes;
+
+        heap2.freeBuffers();
+        heap2.used = 0;
+        heap2.freeSlot = NIL;
+        heap2.freeHandle = NIL;
+        heap2.min = NIL;
+        heap2.numTrees = 0;
+        heap2.size = 0;
+        heap2.totalLinks = 0;
+        heap2.totalCuts = 0;
+        heap2.totalHeapifyCosts = 0;
+        heap2._numMarkedNodes = 0;
+
+        if (!lazyMelds && this.min != NIL) {
+            this.consolidate();
+        }
+        return offset;
+    }
+
+    /**
+     * Adds the detached slot s to the root list of a non-empty heap,
+     * consolidating when melds are not lazy.
+     */
+    private void addRoot(int s) {
+        this.appendNodes(this.min, s);
+        if (get(s, KEY) < get(this.min, KEY)) {
+            this.min = s;
+        }
+        this.numTrees++;
+        if (!lazyMelds) {
+            this.consolidate();
+        }
+    }
+
+    /**
+     * Consolidate function joins trees of the same rank, leaving only one tree for each rank.
+     * A copy of Heap.consolidate() over this class's nodes: a fix to one belongs in both.
+     */
+    private void consolidate() {
+        int[] ranksArray = this.ranksTable;
+        int bound = Heap.rankBound(this.size);
+        if (ranksArray.length < bound) {
+            ranksArray = this.ranksTable = new int[bound];
+            Arrays.fill(ranksArray, NIL);
+        }
+
+        int roots = this.numTrees;
+        int maxRank = 0;
+        int curr = this.min;
+        for (int i = 0; i < roots; i++) {
+            int nextRoot = get(curr, NEXT);
+            int r = rank(curr);
+            while (ranksArray[r] != NIL) {
+                curr = this.link(ranksArray[r], curr);
+                ranksArray[r] = NIL;
+                r = rank(curr);
+                if (r == ranksArray.length) {
+                    ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * r + 1);
+                    Arrays.fill(ranksArray, r, ranksArray.length, NIL);
+                }
+            }
+            ranksArray[r] = curr;
+            if (r > maxRank) {
+                maxRank = r;
+            }
+            curr = nextRoot;
+        }
+
+        this.min = NIL;
+        this.numTrees = 0;
+        int minKey = 0;
+        for (int r = 0; r <= maxRank; r++) {
+            int s = ranksArray[r];
+            if (s != NIL) {
+                ranksArray[r] = NIL;
+                this.numTrees++;
+                set(s, NEXT, s);
+                set(s, PREV, s);
+                if (this.min == NIL) {
+                    this.min = s;
+                    minKey = get(s, KEY);
+                } else {
+                    this.appendNodes(this.min, s);
+                    int k = get(s, KEY);
+                    if (k < minKey) {
+                        this.min = s;
+                        minKey = k;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * link two trees of the same rank, moving on tree to be the child of the other
+     */
+    private int link(int s1, int s2) {
+        int p, c;
+        if (get(s1, KEY) < get(s2, KEY)) {
+            p = s1;
+            c = s2;
+        } else {
+            p = s2;
+            c = s1;
+        }
+        int cNext = get(c, NEXT);
+        int cPrev = get(c, PREV);
+        set(cPrev, NEXT, cNext);
+        set(cNext, PREV, cPrev);
+        set(c, NEXT, c);
+        set(c, PREV, c);
+
+        if (isMarked(c)) {
+            setMarked(c, false);
+            this._numMarkedNodes--;
+        }
+
+        set(c, PARENT, p);
+        int pChild = get(p, CHILD);
+        if (pChild == NIL) {
+            set(p, CHILD, c);
+        } else {
+            this.appendNodes(pChild, c);
+        }
+        addRank(p, 1);
+        this.numTrees--;
+        this.totalLinks++;
+        return p;
+    }
+
+    /**
+     * Splice the circular list of s2 into the circular list of s1, right after s1.
+     */
+    private void appendNodes(int s1, int s2) {
+        int next1 = get(s1, NEXT);
+        int next2 = get(s2, NEXT);
+        set(s1, NEXT, next2);
+        set(next2, PREV, s1);
+        set(s2, NEXT, next1);
+        set(next1, PREV, s2);
+    }
+
+    // ===== MEMORY =====
+
+    /**
+     * Return a free slot, growing the storage if needed.
+     */
+    private int allocate() {
+        int s = this.freeSlot;
+        if (s != NIL) {
+            this.freeSlot = get(s, NEXT);
+            return s;
+        }
+        if (this.used == Integer.MAX_VALUE) {
+            throw new IllegalStateException("heap is full");
+        }
+        this.ensureCapacity(this.used + 1);
+        return this.used++;
+    }
+
+    /**
+     * Put slot s (and the handle of its item) on the free lists.
+     */
+    private void release(int s) {
+        set(s, RANK, 0);
+        set(s, CHILD, NIL);
+        set(s, NEXT, this.freeSlot);
+        this.freeSlot = s;
+        if (!this.lazyDecreaseKeys) {
+            int h = get(s, HANDLE);
+            set(h, SLOT, this.freeHandle);
+            this.freeHandle = h;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        int needed = (int) ((capacity + (long) CHUNK_MASK) >>> CHUNK_BITS);
+        int have = this.chunks.length;
+        if (needed <= have) {
+            return;
+        }
+        this.chunks = Arrays.copyOf(this.chunks, needed);
+        this.buffers = Arrays.copyOf(this.buffers, needed);
+        for (int i = have; i < needed; i++) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect((RECORD_INTS * Integer.BYTES) << CHUNK_BITS)
+                    .order(ByteOrder.nativeOrder());
+            this.buffers[i] = buffer;
+            this.chunks[i] = buffer.asIntBuffer();
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("heap is closed");
+        }
+    }
+
+    /**
+     * Return the number of bytes of native memory held by this heap.
+     */
+    public long offHeapBytes() {
+        return (long) this.buffers.length * ((RECORD_INTS * Integer.BYTES) << CHUNK_BITS);
+    }
+
+    /**
+     * Free the native memory of this heap. Further operations throw IllegalStateException.
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.freeBuffers();
+        this.min = NIL;
+        this.size = 0;
+        this.used = 0;
+    }
+
+    /**
+     * Free every chunk; the storage grows again from nothing if the heap is used.
+     */
+    private void freeBuffers() {
+        for (ByteBuffer buffer : this.buffers) {
+            freeDirect(buffer);
+        }
+        this.chunks = new IntBuffer[0];
+        this.buffers = new ByteBuffer[0];
+    }
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no explicit free available: buffers are freed when collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * Release the native memory of a direct buffer now rather than when it is collected.
+     */
+    private static void freeDirect(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // leave it to the collector
+        }
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numTrees;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return this._numMarkedNodes;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total heapify costs.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * HeapPairing
+ *
+ * A pairing heap over positive integers, with the same items and counters
+ * as Heap. The heap is a single tree: insert, meld and decreaseKey link a
+ * tree to the root in O(1), and deleteMin pairs up the root's children
+ * left to right and links the pairs right to left (two-pass pairing).
+ *
+ * The HeapNode fields are used as follows: child is the leftmost child,
+ * next and prev are the right and left siblings (null at the ends) and
+ * parent is the parent. rank and mark are not used.
+ *
+ */
+public class HeapPairing implements AddressableHeap<HeapPairing>
+{
+    private Heap.HeapNode root;
+    private int size;
+    private int totalLinks;
+    private int totalCuts;
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapPairing()
+    {
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Heap.HeapItem item = new Heap.HeapItem(key, info);
+        Heap.HeapNode node = new Heap.HeapNode(item);
+        item.node = node;
+        node.next = null;
+        node.prev = null;
+        this.root = (this.root == null) ? node : this.link(this.root, node);
+        this.size++;
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return (this.root == null) ? null : this.root.item;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        if (this.root == null) {
+            return;
+        }
+        Heap.HeapNode first = this.root.child;
+        this.root.child = null;
+        this.root = this.mergePairs(first);
+        this.size--;
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     * A node that becomes smaller than its parent is cut with its subtree
+     * and linked to the root.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        x.key -= diff;
+        Heap.HeapNode node = x.node;
+        if (node.parent != null && x.key < node.parent.item.key) {
+            this.cut(node);
+            this.root = this.link(this.root, node);
+        }
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     * x is cut from its parent and its children are paired into one tree,
+     * which is linked to the root.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        Heap.HeapNode node = x.node;
+        if (node == this.root) {
+            this.deleteMin();
+            return;
+        }
+        this.cut(node);
+        Heap.HeapNode first = node.child;
+        node.child = null;
+        Heap.HeapNode rest = this.mergePairs(first);
+        if (rest != null) {
+            this.root = this.link(this.root, rest);
+        }
+        this.size--;
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, linking the two roots.
+     *
+     */
+    public void meld(HeapPairing heap2)
+    {
+        if (heap2 == null || heap2.root == null) {
+            return;
+        }
+        this.root = (this.root == null) ? heap2.root : this.link(this.root, heap2.root);
+        this.size += heap2.size;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+    }
+
+    /**
+     * Detach node, with its subtree, from its parent's child list.
+     */
+    private void cut(Heap.HeapNode node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            node.parent.child = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.parent = null;
+        node.next = null;
+        node.prev = null;
+        this.totalCuts++;
+    }
+
+    /**
+     * Two-pass pairing of the sibling list starting at first, whose parent
+     * pointers are cleared. Return the root of the resulting tree, null if
+     * the list is empty.
+     * The first pass links the siblings in pairs from left to right, pushing
+     * each result on a stack (through next); the second pass pops the stack,
+     * so it links the pairs from right to left.
+     */
+    private Heap.HeapNode mergePairs(Heap.HeapNode first) {
+        Heap.HeapNode stack = null;
+        while (first != null) {
+            Heap.HeapNode a = first;
+            Heap.HeapNode b = a.next;
+            a.parent = null;
+            a.prev = null;
+            if (b == null) {
+                a.next = stack;
+                stack = a;
+                break;
+            }
+            first = b.next;
+            b.parent = null;
+            b.prev = null;
+            a.next = null;
+            b.next = null;
+            a = this.link(a, b);
+            a.next = stack;
+            stack = a;
+        }
+        if (stack == null) {
+            return null;
+        }
+        Heap.HeapNode result = stack;
+        stack = stack.next;
+        result.next = null;
+        while (stack != null) {
+            Heap.HeapNode nextPair = stack.next;
+            stack.next = null;
+            result = this.link(stack, result);
+            stack = nextPair;
+        }
+        return result;
+    }
+
+    /**
+     * link two trees, moving the root with the larger key to be the leftmost
+     * child of the other. Return the new root.
+     * pre: node1 and node2 are roots without siblings
+     */
+    private Heap.HeapNode link(Heap.HeapNode node1, Heap.HeapNode node2) {
+        Heap.HeapNode parent, newChild;
+        if (node1.item.key <= node2.item.key) {
+            parent = node1;
+            newChild = node2;
+        } else {
+            parent = node2;
+            newChild = node1;
+        }
+        newChild.next = parent.child;
+        if (parent.child != null) {
+            parent.child.prev = newChild;
+        }
+        newChild.prev = null;
+        newChild.parent = parent;
+        parent.child = newChild;
+        this.totalLinks++;
+        return parent;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap, at most one.
+     *
+     */
+    public int numTrees()
+    {
+        return (this.root == null) ? 0 : 1;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total heapify costs, always 0.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return 0;
+    }
+}
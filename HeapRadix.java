@@ -0,0 +1,305 @@
+/**
+ * HeapRadix
+ *
+ * A monotone radix heap over positive integers, with the same items as
+ * Heap. It only accepts keys at least as large as the last deleted
+ * minimum (last), as in Dijkstra's algorithm or an event queue, and
+ * rejects any other insert or decreaseKey.
+ *
+ * An item is kept in bucket 0 if its key equals last, and otherwise in
+ * bucket i when the highest bit in which its key differs from last is
+ * bit i-1. deleteMin takes the min from the lowest non-empty bucket and,
+ * when that is not bucket 0, makes the min the new last and moves the
+ * rest of that bucket down. An item can only move down 31 times, so
+ * every operation is O(1) amortised, plus a scan of one bucket in findMin.
+ *
+ * The HeapNode fields are used as follows: next and prev link the nodes of
+ * a bucket in a circular list and rank is the bucket index (-1 once the
+ * item is deleted). child, parent and mark are not used.
+ *
+ */
+public class HeapRadix implements AddressableHeap<HeapRadix>
+{
+    private final Heap.HeapNode[] buckets = new Heap.HeapNode[32];
+    private int nonEmpty; // bit i is set when bucket i is not empty
+    private int last;
+    private Heap.HeapItem min; // the minimal item when known, null otherwise
+    private int size;
+    private int totalHeapifyCosts;
+
+    /**
+     *
+     * Constructor to initialize an empty heap.
+     *
+     */
+    public HeapRadix()
+    {
+    }
+
+    /**
+     *
+     * pre: key >= lastKey()
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < this.last) {
+            throw new IllegalArgumentException("key must be >= " + this.last);
+        }
+        Heap.HeapItem item = new Heap.HeapItem(key, info);
+        Heap.HeapNode node = new Heap.HeapNode(item);
+        item.node = node;
+        this.add(node);
+        this.size++;
+        if (this.size == 1 || (this.min != null && key < this.min.key)) {
+            this.min = item;
+        }
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        if (this.min == null && this.size > 0) {
+            Heap.HeapNode head = this.buckets[Integer.numberOfTrailingZeros(this.nonEmpty)];
+            Heap.HeapNode best = head;
+            for (Heap.HeapNode node = head.next; node != head; node = node.next) {
+                if (node.item.key < best.item.key) {
+                    best = node;
+                }
+            }
+            this.min = best.item;
+        }
+        return this.min;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     * Its key becomes the new last, and the rest of its bucket moves down.
+     *
+     */
+    public void deleteMin()
+    {
+        Heap.HeapItem x = this.findMin();
+        if (x == null) {
+            return;
+        }
+        int b = x.node.rank;
+        this.remove(x.node);
+        this.size--;
+        this.min = null;
+        this.last = x.key;
+        if (b == 0 || this.buckets[b] == null) {
+            return;
+        }
+
+        // Every other key of bucket b now differs from last in a lower bit
+        Heap.HeapNode node = this.buckets[b];
+        this.buckets[b] = null;
+        this.nonEmpty &= ~(1 << b);
+        Heap.HeapNode end = node.prev;
+        while (true) {
+            Heap.HeapNode next = node.next;
+            this.add(node);
+            this.totalHeapifyCosts++;
+            if (node == end) {
+                break;
+            }
+            node = next;
+        }
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key-lastKey()
+     *
+     * Decrease the key of x by diff and fix the heap.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        if (x.key - diff < this.last) {
+            throw new IllegalArgumentException("key must stay >= " + this.last);
+        }
+        x.key -= diff;
+        Heap.HeapNode node = x.node;
+        if (this.bucketOf(x.key) != node.rank) {
+            this.remove(node);
+            this.add(node);
+        }
+        if (this.min != null && x.key < this.min.key) {
+            this.min = x;
+        }
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        this.remove(x.node);
+        this.size--;
+        if (this.min == x) {
+            this.min = null;
+        }
+    }
+
+    /**
+     *
+     * pre: heap2 is empty or heap2.findMin().key >= lastKey()
+     *
+     * Meld the heap with heap2, which is left empty.
+     * The items of heap2 are moved into this heap's buckets one by one.
+     *
+     */
+    public void meld(HeapRadix heap2)
+    {
+        if (heap2 == null || heap2.size == 0) {
+            return;
+        }
+        Heap.HeapItem min2 = heap2.findMin();
+        if (min2.key < this.last) {
+            throw new IllegalArgumentException("keys must be >= " + this.last);
+        }
+        while (heap2.nonEmpty != 0) {
+            int b = Integer.numberOfTrailingZeros(heap2.nonEmpty);
+            Heap.HeapNode node = heap2.buckets[b];
+            heap2.remove(node);
+            this.add(node);
+        }
+        if (this.size == 0 || (this.min != null && min2.key < this.min.key)) {
+            this.min = min2;
+        }
+        this.size += heap2.size;
+        this.totalHeapifyCosts += heap2.totalHeapifyCosts;
+        heap2.size = 0;
+        heap2.min = null;
+        heap2.totalHeapifyCosts = 0;
+    }
+
+    private int bucketOf(int key) {
+        return (key == this.last) ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ this.last);
+    }
+
+    /**
+     * Add the detached node to the bucket of its key.
+     */
+    private void add(Heap.HeapNode node) {
+        int b = this.bucketOf(node.item.key);
+        node.rank = b;
+        Heap.HeapNode head = this.buckets[b];
+        if (head == null) {
+            node.next = node;
+            node.prev = node;
+            this.buckets[b] = node;
+            this.nonEmpty |= 1 << b;
+        } else {
+            node.next = head.next;
+            node.prev = head;
+            head.next.prev = node;
+            head.next = node;
+        }
+    }
+
+    /**
+     * Remove the node from its bucket.
+     */
+    private void remove(Heap.HeapNode node) {
+        int b = node.rank;
+        if (node.next == node) {
+            this.buckets[b] = null;
+            this.nonEmpty &= ~(1 << b);
+        } else {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            if (this.buckets[b] == node) {
+                this.buckets[b] = node.next;
+            }
+        }
+        node.next = node;
+        node.prev = node;
+        node.rank = -1;
+    }
+
+    /**
+     *
+     * Return the last deleted minimum, the smallest key that can still be inserted.
+     *
+     */
+    public int lastKey()
+    {
+        return this.last;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees in the heap: the number of non-empty buckets.
+     *
+     */
+    public int numTrees()
+    {
+        return Integer.bitCount(this.nonEmpty);
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links, always 0.
+     *
+     */
+    public int totalLinks()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of cuts, always 0.
+     *
+     */
+    public int totalCuts()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total heapify costs: the number of items moved to a lower bucket.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return this.totalHeapifyCosts;
+    }
+}
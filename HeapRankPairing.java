@@ -0,0 +1,377 @@
+import java.util.Arrays;
+
+/**
+ * HeapRankPairing
+ *
+ * A rank-pairing heap over positive integers (Haeupler, Sen and Tarjan),
+ * with the same items and counters as Heap. The heap is a list of half
+ * trees: a node's key is at most every key in its left subtree, and a
+ * root has no right subtree. insert and meld only add roots. deleteMin
+ * turns the left spine of the min into roots and links roots of equal
+ * rank in a single pass. decreaseKey cuts the node with its left subtree
+ * and lowers the ranks above it, so there are no cascading cuts.
+ *
+ * With type2 unset the type-1 rank rule is used: a node's rank is the
+ * larger of its children's ranks if they differ, and one more otherwise.
+ * With type2 set the looser type-2 rule is used: the larger of the
+ * children's ranks if they differ by more than one, and one more otherwise.
+ * A missing child has rank -1, and a root has rank one more than its left
+ * child.
+ *
+ * The HeapNode fields are used as follows: child is the left child, next
+ * is the right child of a non-root and the next root (in a circular list)
+ * of a root, parent is the parent and rank is the rank. prev and mark are
+ * not used.
+ *
+ */
+public class HeapRankPairing implements AddressableHeap<HeapRankPairing>
+{
+    public final boolean type2;
+    private Heap.HeapNode min;
+    private int numTrees;
+    private int size;
+    private int totalLinks;
+    private int totalCuts;
+    private int totalRankChanges;
+    private Heap.HeapNode[] ranksTable = new Heap.HeapNode[0];
+
+    /**
+     *
+     * Constructor to initialize an empty heap with the type-1 or type-2 rank rule.
+     *
+     */
+    public HeapRankPairing(boolean type2)
+    {
+        this.type2 = type2;
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the heap and return the new item.
+     *
+     */
+    public Heap.HeapItem insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Heap.HeapItem item = new Heap.HeapItem(key, info);
+        Heap.HeapNode node = new Heap.HeapNode(item);
+        item.node = node;
+        node.prev = null;
+        this.addRoot(node);
+        this.size++;
+        return item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty.
+     *
+     */
+    public Heap.HeapItem findMin()
+    {
+        return (this.min == null) ? null : this.min.item;
+    }
+
+    /**
+     *
+     * Delete the minimal item.
+     *
+     */
+    public void deleteMin()
+    {
+        Heap.HeapNode x = this.min;
+        if (x == null) {
+            return;
+        }
+        this.size--;
+        if (this.size == 0) {
+            this.min = null;
+            this.numTrees = 0;
+            return;
+        }
+
+        // One pass over the old roots and the left spine of x: two roots of the same
+        // rank are linked and the result goes straight to the new root list.
+        Heap.HeapNode[] ranksArray = this.ranksTable();
+        int maxRank = -1;
+        this.min = null;
+        this.numTrees = 0;
+        Heap.HeapNode root = x.next;
+        Heap.HeapNode spine = x.child;
+        x.next = x;
+        x.child = null;
+        while (root != x || spine != null) {
+            Heap.HeapNode node;
+            if (root != x) {
+                node = root;
+                root = root.next;
+            } else {
+                node = spine;
+                spine = spine.next;
+                node.parent = null;
+                node.rank = rank(node.child) + 1;
+            }
+            int r = node.rank;
+            if (r >= ranksArray.length) {
+                ranksArray = this.ranksTable = Arrays.copyOf(ranksArray, 2 * r + 1);
+            }
+            if (ranksArray[r] == null) {
+                ranksArray[r] = node;
+                if (r > maxRank) {
+                    maxRank = r;
+                }
+            } else {
+                Heap.HeapNode other = ranksArray[r];
+                ranksArray[r] = null;
+                this.addRoot(this.link(other, node));
+            }
+        }
+        for (int r = 0; r <= maxRank; r++) {
+            if (ranksArray[r] != null) {
+                this.addRoot(ranksArray[r]);
+                ranksArray[r] = null;
+            }
+        }
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff and fix the heap.
+     * Unless x is a root, x is cut with its left subtree and becomes a root.
+     *
+     */
+    public void decreaseKey(Heap.HeapItem x, int diff)
+    {
+        if (diff < 0) {
+            throw new IllegalArgumentException("diff must be in the positive range");
+        }
+        x.key -= diff;
+        Heap.HeapNode node = x.node;
+        if (node.parent != null) {
+            this.cut(node);
+        } else if (x.key < this.min.item.key) {
+            this.min = node;
+        }
+    }
+
+    /**
+     *
+     * Delete x from the heap.
+     * x is made a root as if its key were negative infinity and then deleted as the min.
+     *
+     */
+    public void delete(Heap.HeapItem x)
+    {
+        Heap.HeapNode node = x.node;
+        if (node.parent != null) {
+            this.cut(node);
+        }
+        this.min = node;
+        this.deleteMin();
+    }
+
+    /**
+     *
+     * Meld the heap with heap2, joining the two root lists.
+     *
+     */
+    public void meld(HeapRankPairing heap2)
+    {
+        if (heap2 == null || heap2.min == null) {
+            return;
+        }
+        if (this.min == null) {
+            this.min = heap2.min;
+        } else {
+            Heap.HeapNode after = this.min.next;
+            this.min.next = heap2.min.next;
+            heap2.min.next = after;
+            if (heap2.min.item.key < this.min.item.key) {
+                this.min = heap2.min;
+            }
+        }
+        this.numTrees += heap2.numTrees;
+        this.size += heap2.size;
+        this.totalLinks += heap2.totalLinks;
+        this.totalCuts += heap2.totalCuts;
+        this.totalRankChanges += heap2.totalRankChanges;
+    }
+
+    /**
+     * Cut node, with its left subtree, from its parent and make it a root.
+     * Its right child takes its place, and the ranks on the path up from the
+     * parent are lowered until one is already as small as the rule allows.
+     */
+    private void cut(Heap.HeapNode node) {
+        Heap.HeapNode parent = node.parent;
+        Heap.HeapNode right = node.next;
+        if (parent.child == node) {
+            parent.child = right;
+        } else {
+            parent.next = right;
+        }
+        if (right != null) {
+            right.parent = parent;
+        }
+        node.parent = null;
+        node.rank = rank(node.child) + 1;
+        this.addRoot(node);
+        this.totalCuts++;
+
+        Heap.HeapNode u = parent;
+        while (u.parent != null) {
+            int rv = rank(u.child);
+            int rw = rank(u.next);
+            int k = Math.max(rv, rw);
+            if (type2 ? Math.abs(rv - rw) <= 1 : rv == rw) {
+                k++;
+            }
+            if (k >= u.rank) {
+                return;
+            }
+            u.rank = k;
+            this.totalRankChanges++;
+            u = u.parent;
+        }
+        int k = rank(u.child) + 1;
+        if (k < u.rank) {
+            u.rank = k;
+            this.totalRankChanges++;
+        }
+    }
+
+    /**
+     * Add the detached node to the root list, after min.
+     */
+    private void addRoot(Heap.HeapNode node) {
+        if (this.min == null) {
+            node.next = node;
+            this.min = node;
+        } else {
+            node.next = this.min.next;
+            this.min.next = node;
+            if (node.item.key < this.min.item.key) {
+                this.min = node;
+            }
+        }
+        this.numTrees++;
+    }
+
+    /**
+     * link two half trees of the same rank: the root with the larger key becomes
+     * the left child of the other, and takes the other's left subtree as its
+     * right subtree. Return the new root, whose rank grows by one.
+     */
+    private Heap.HeapNode link(Heap.HeapNode node1, Heap.HeapNode node2) {
+        Heap.HeapNode winner, loser;
+        if (node1.item.key <= node2.item.key) {
+            winner = node1;
+            loser = node2;
+        } else {
+            winner = node2;
+            loser = node1;
+        }
+        loser.next = winner.child;
+        if (winner.child != null) {
+            winner.child.parent = loser;
+        }
+        winner.child = loser;
+        loser.parent = winner;
+        winner.rank++;
+        this.totalLinks++;
+        return winner;
+    }
+
+    private static int rank(Heap.HeapNode node) {
+        return (node == null) ? -1 : node.rank;
+    }
+
+    /**
+     * Return the ranks table, grown if needed to hold every rank possible for
+     * the current size. The table is all null between deleteMins.
+     */
+    private Heap.HeapNode[] ranksTable() {
+        int bound = 2 * (32 - Integer.numberOfLeadingZeros(this.size)) + 3;
+        if (this.ranksTable.length < bound) {
+            this.ranksTable = new Heap.HeapNode[bound];
+        }
+        return this.ranksTable;
+    }
+
+    /**
+     *
+     * Return the number of elements in the heap
+     *
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     *
+     * Return the number of trees (half trees) in the heap.
+     *
+     */
+    public int numTrees()
+    {
+        return this.numTrees;
+    }
+
+    /**
+     *
+     * Return the number of marked nodes in the heap, always 0.
+     *
+     */
+    public int numMarkedNodes()
+    {
+        return 0;
+    }
+
+    /**
+     *
+     * Return the total number of links.
+     *
+     */
+    public int totalLinks()
+    {
+        return this.totalLinks;
+    }
+
+    /**
+     *
+     * Return the total number of cuts, one per decreaseKey or delete of a non-root.
+     *
+     */
+    public int totalCuts()
+    {
+        return this.totalCuts;
+    }
+
+    /**
+     *
+     * Return the total number of rank decreases made after cuts, the rank-pairing
+     * counterpart of the cascading cuts of Heap.
+     *
+     */
+    public int totalRankChanges()
+    {
+        return this.totalRankChanges;
+    }
+
+    /**
+     *
+     * Return the total heapify costs, always 0.
+     *
+     */
+    public int totalHeapifyCosts()
+    {
+        return 0;
+    }
+}
@@ -0,0 +1,335 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HeapSkipList
+ *
+ * A lock-free concurrent priority queue: a skip list with logical deletion
+ * in the style of Lindén and Jonsson. deleteMin does not unlink the node it
+ * takes. It marks the level-0 pointer to it, so the deleted nodes form a
+ * prefix of the list, and a deleteMin walks that prefix and marks the first
+ * unmarked pointer. Only when the prefix is longer than boundOffset does a
+ * deleteMin cut it off, with one CAS on the head, so deleteMins rarely touch
+ * the same memory as each other, or as inserts.
+ *
+ * The queue is strict: deleteMin returns the minimum (its CAS on the
+ * pointer is the linearization point). insert returns an Item, a handle
+ * like Heap.HeapItem. Each node also carries a claim flag: delete claims
+ * the node in place and leaves it for the next deleteMin to walk past, and
+ * decreaseKey claims the node and inserts a new one with the smaller key.
+ *
+ */
+public class HeapSkipList
+{
+    private static final int MAX_LEVEL = 32;
+    private static final int BOUND_OFFSET = 32;
+
+    private final int boundOffset;
+    private final Node head = new Node(Integer.MIN_VALUE, null, MAX_LEVEL);
+    private final Node tail = new Node(Integer.MAX_VALUE, null, MAX_LEVEL);
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * A handle to an item in the queue. The node changes on decreaseKey.
+     */
+    public static final class Item
+    {
+        public volatile int key;
+        public final String info;
+        private volatile Node node;
+
+        private Item(int key, String info) {
+            this.key = key;
+            this.info = info;
+        }
+    }
+
+    /**
+     * A skip list node. claimed is set, once, by the operation that removes
+     * the item: deleteMin, delete or decreaseKey.
+     */
+    private static final class Node
+    {
+        private static final VarHandle CLAIMED;
+        static {
+            try {
+                CLAIMED = MethodHandles.lookup().findVarHandle(Node.class, "claimed", boolean.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final int key;
+        final Item item;
+        final AtomicMarkableReference<Node> next0; // marked once the next node is deleted
+        final AtomicReferenceArray<Node> next; // levels 1..level-1, index 0 unused
+        volatile boolean inserting;
+        volatile boolean claimed;
+
+        Node(int key, Item item, int level) {
+            this.key = key;
+            this.item = item;
+            this.next0 = new AtomicMarkableReference<>(null, false);
+            this.next = new AtomicReferenceArray<>(level);
+        }
+
+        int level() {
+            return this.next.length();
+        }
+
+        /**
+         * Claim the node, returning false if another operation already has.
+         */
+        boolean claim() {
+            return CLAIMED.compareAndSet(this, false, true);
+        }
+    }
+
+    /**
+     *
+     * Constructor to initialize an empty queue.
+     *
+     */
+    public HeapSkipList()
+    {
+        this(BOUND_OFFSET);
+    }
+
+    /**
+     *
+     * pre: boundOffset >= 1
+     *
+     * Constructor to initialize an empty queue that cuts off its deleted
+     * prefix once it is longer than boundOffset nodes.
+     *
+     */
+    public HeapSkipList(int boundOffset)
+    {
+        if (boundOffset < 1) {
+            throw new IllegalArgumentException("boundOffset must be >= 1");
+        }
+        this.boundOffset = boundOffset;
+        this.head.next0.set(this.tail, false);
+        for (int i = 1; i < MAX_LEVEL; i++) {
+            this.head.next.set(i, this.tail);
+        }
+    }
+
+    /**
+     *
+     * pre: key >= 0
+     *
+     * Insert (key,info) into the queue and return the new item.
+     *
+     */
+    public Item insert(int key, String info)
+    {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must be >= 0");
+        }
+        Item item = new Item(key, info);
+        this.link(item);
+        this.size.increment();
+        return item;
+    }
+
+    /**
+     *
+     * Delete the minimal item and return it, null if empty.
+     *
+     */
+    public Item deleteMin()
+    {
+        boolean[] marked = new boolean[1];
+        Node observedHead = this.head.next0.get(marked);
+        boolean observedMark = marked[0];
+        Node x = this.head;
+        Node newHead = null;
+        int offset = 0;
+        while (true) {
+            if (x.next0.getReference() == this.tail) {
+                return null;
+            }
+            if (newHead == null && x.inserting) {
+                newHead = x;
+            }
+            Node next = fetchAndMark(x.next0, marked);
+            offset++;
+            x = next;
+            // a node claimed by delete is passed over like a deleted one
+            if (!marked[0] && x.claim()) {
+                break;
+            }
+        }
+        this.size.decrement();
+        if (newHead == null) {
+            newHead = x;
+        }
+        if (offset > this.boundOffset
+                && this.head.next0.compareAndSet(observedHead, newHead, observedMark, true)) {
+            this.restructure();
+        }
+        return x.item;
+    }
+
+    /**
+     *
+     * Return the minimal item, null if empty. Not linearizable: the item may
+     * be deleted by another thread before it is returned.
+     *
+     */
+    public Item findMin()
+    {
+        for (Node x = this.head.next0.getReference(); x != this.tail; x = x.next0.getReference()) {
+            if (!x.claimed) {
+                return x.item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * pre: 0<=diff<=x.key
+     *
+     * Decrease the key of x by diff, by deleting it and inserting it again with
+     * the new key. Return false, and do nothing, if x is no longer in the queue.
+     * One thread at a time may decreaseKey or delete a given item.
+     *
+     */
+    public boolean decreaseKey(Item x, int diff)
+    {
+        if (diff < 0 || diff > x.key) {
+            throw new IllegalArgumentException("diff must be in 0.." + x.key);
+        }
+        if (!x.node.claim()) {
+            return false;
+        }
+        x.key -= diff;
+        this.link(x);
+        return true;
+    }
+
+    /**
+     *
+     * Delete x from the queue. Return false if x was no longer in the queue.
+     * One thread at a time may decreaseKey or delete a given item.
+     *
+     */
+    public boolean delete(Item x)
+    {
+        if (!x.node.claim()) {
+            return false;
+        }
+        this.size.decrement();
+        return true;
+    }
+
+    /**
+     *
+     * Return the number of items, exact only when no other thread is changing the queue.
+     *
+     */
+    public int size()
+    {
+        return (int) this.size.sum();
+    }
+
+    /**
+     * Insert a new node for item, with its current key and a random height.
+     */
+    private void link(Item item) {
+        int key = item.key;
+        int level = Integer.numberOfTrailingZeros(
+                ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1))) + 1;
+        Node node = new Node(key, item, level);
+        node.inserting = true;
+        item.node = node;
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        Node deleted;
+        do {
+            deleted = this.locatePreds(key, preds, succs);
+            node.next0.set(succs[0], false);
+        } while (!preds[0].next0.compareAndSet(succs[0], node, false, false));
+        for (int i = 1; i < level; ) {
+            node.next.set(i, succs[i]);
+            if (node.next0.isMarked() || succs[i].next0.isMarked() || succs[i] == deleted) {
+                break; // node or its successor is already deleted
+            }
+            if (preds[i].next.compareAndSet(i, succs[i], node)) {
+                i++;
+            } else {
+                deleted = this.locatePreds(key, preds, succs);
+                if (succs[0] != node) {
+                    break;
+                }
+            }
+        }
+        node.inserting = false;
+    }
+
+    /**
+     * Fill preds and succs with the nodes around key on every level, skipping
+     * the deleted prefix, and return the last deleted node seen on level 0.
+     */
+    private Node locatePreds(int key, Node[] preds, Node[] succs) {
+        boolean[] marked = new boolean[1];
+        Node x = this.head;
+        Node deleted = null;
+        for (int i = MAX_LEVEL - 1; i >= 0; i--) {
+            Node next = (i == 0) ? x.next0.get(marked) : x.next.get(i);
+            boolean d = (i == 0) && marked[0];
+            while (next.key < key || next.next0.isMarked() || d) {
+                if (d) {
+                    deleted = next;
+                }
+                x = next;
+                next = (i == 0) ? x.next0.get(marked) : x.next.get(i);
+                d = (i == 0) && marked[0];
+            }
+            preds[i] = x;
+            succs[i] = next;
+        }
+        return deleted;
+    }
+
+    /**
+     * Move the head's upper-level pointers past the deleted prefix.
+     */
+    private void restructure() {
+        Node pred = this.head;
+        for (int i = MAX_LEVEL - 1; i > 0; ) {
+            Node h = this.head.next.get(i);
+            if (!h.next0.isMarked()) {
+                i--;
+                continue;
+            }
+            Node cur = pred.next.get(i);
+            while (cur.next0.isMarked()) {
+                pred = cur;
+                cur = pred.next.get(i);
+            }
+            if (this.head.next.compareAndSet(i, h, cur)) {
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Mark ref and return the node it points to; marked[0] is set to whether
+     * it was already marked.
+     */
+    private static Node fetchAndMark(AtomicMarkableReference<Node> ref, boolean[] marked) {
+        while (true) {
+            Node next = ref.get(marked);
+            if (marked[0] || ref.compareAndSet(next, next, false, true)) {
+                return next;
+            }
+        }
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Supplier;
 
 public class HeapUnifiedTester {
 
@@ -60,7 +61,6 @@ public class HeapUnifiedTester {
 
             actualTrees++;
             actualSize += validateNodeRecursive(curr, null, visited);
-            if (curr.marked) actualMarked++;
 
             assert curr.parent == null : "Root has non-null parent, key=" + curr.item.key;
             assert curr.next != null && curr.prev != null : "Root has null next/prev, key=" + curr.item.key;
@@ -70,6 +70,11 @@ public class HeapUnifiedTester {
             curr = curr.next;
         } while (curr != start);
 
+        // marks live below the roots, so count them over every node
+        for (Heap.HeapNode n : visited) {
+            if (n.mark) actualMarked++;
+        }
+
         assert actualSize == h.size() :
                 "Size mismatch! expected=" + h.size() + ", actual=" + actualSize;
 
@@ -86,6 +91,20 @@ public class HeapUnifiedTester {
         }
     }
 
+    /**
+     * Validates any engine: the full structure of a Heap, and for the other
+     * engines what the interface shows.
+     */
+    public static void validate(AddressableHeap<?> h) {
+        if (h instanceof Heap) {
+            validateHeapStructure((Heap) h);
+            return;
+        }
+        assert h.size() >= 0 : "Negative size";
+        assert (h.size() == 0) == (h.findMin() == null) : "findMin must be null exactly when empty";
+        assert (h.size() == 0) == (h.numTrees() == 0) : "numTrees must be 0 exactly when empty";
+    }
+
     private static int validateNodeRecursive(Heap.HeapNode node,
                                              Heap.HeapNode parent,
                                              Set<Heap.HeapNode> visited) {
@@ -199,8 +218,12 @@ public class HeapUnifiedTester {
     // =========================================================
 
     public static void runChaosMonkey(boolean lazyM, boolean lazyD) {
-        System.out.println("Chaos Monkey (lm=" + lazyM + ", ld=" + lazyD + ")");
-        Heap h = new Heap(lazyM, lazyD);
+        runChaosMonkey("lm=" + lazyM + ", ld=" + lazyD, () -> new Heap(lazyM, lazyD));
+    }
+
+    public static <H extends AddressableHeap<H>> void runChaosMonkey(String label, Supplier<H> engine) {
+        System.out.println("Chaos Monkey (" + label + ")");
+        H h = engine.get();
 
         TreeMap<Integer, Integer> truth = new TreeMap<>();
         List<Heap.HeapItem> active = new ArrayList<>();
@@ -274,11 +297,11 @@ public class HeapUnifiedTester {
 
             // periodic deep validation (heap should be consistent after each op)
             if (i % 250 == 0) {
-                validateHeapStructure(h);
+                validate(h);
             }
         }
 
-        validateHeapStructure(h);
+        validate(h);
         System.out.println("Chaos Monkey finished OK");
     }
 
@@ -292,6 +315,12 @@ public class HeapUnifiedTester {
             testEdgeCases();
             runChaosMonkey(true, true);
             runChaosMonkey(false, false);
+            runChaosMonkey("HeapPairing", HeapPairing::new);
+            runChaosMonkey("HeapHollow", HeapHollow::new);
+            runChaosMonkey("HeapRankPairing type-1", () -> new HeapRankPairing(false));
+            runChaosMonkey("HeapRankPairing type-2", () -> new HeapRankPairing(true));
+            runChaosMonkey("HeapDary d=4", () -> new HeapDary(4));
+            runChaosMonkey("HeapBucket maxKey=2^14", () -> new HeapBucket(1 << 14));
             System.out.println("\n>>> ALL UNIFIED TESTS PASSED! <<<");
         } catch (AssertionError e) {
             System.err.println("\n!!! TEST FAILED !!!");
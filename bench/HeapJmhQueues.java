@@ -0,0 +1,120 @@
+import java.util.PriorityQueue;
+import heapjmh.Queue;
+
+/**
+ * HeapJmhQueues
+ *
+ * The heapjmh.Queue implementations for HeapJmhBenchmark: any HeapFactory
+ * engine, or java.util.PriorityQueue as a baseline. PriorityQueue has no
+ * handles, so its decreaseKey and delete are remove(Object) and add, which
+ * are linear in the size.
+ */
+public final class HeapJmhQueues {
+
+    private HeapJmhQueues() {
+    }
+
+    /**
+     * Return an empty queue of the HeapFactory engine with the given name, or a
+     * PriorityQueue for PRIORITY_QUEUE.
+     */
+    public static Queue create(String engine) {
+        if (engine.equals("PRIORITY_QUEUE")) {
+            return new PriorityQueueQueue();
+        }
+        return wrap(HeapFactory.create(engine, Integer.MAX_VALUE - 1));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Queue wrap(AddressableHeap<?> heap) {
+        return new HeapQueue((AddressableHeap) heap);
+    }
+
+    static final class HeapQueue<H extends AddressableHeap<H>> implements Queue {
+        final H heap;
+
+        HeapQueue(H heap) {
+            this.heap = heap;
+        }
+
+        public Object insert(int key) {
+            return heap.insert(key, null);
+        }
+
+        public Object findMin() {
+            return heap.findMin();
+        }
+
+        public void deleteMin() {
+            heap.deleteMin();
+        }
+
+        public void decreaseKey(Object x, int diff) {
+            heap.decreaseKey((Heap.HeapItem) x, diff);
+        }
+
+        public void delete(Object x) {
+            heap.delete((Heap.HeapItem) x);
+        }
+
+        @SuppressWarnings("unchecked")
+        public void meld(Queue other) {
+            heap.meld(((HeapQueue<H>) other).heap);
+        }
+
+        public int key(Object x) {
+            return ((Heap.HeapItem) x).key;
+        }
+    }
+
+    static final class Entry implements Comparable<Entry> {
+        int key;
+
+        Entry(int key) {
+            this.key = key;
+        }
+
+        public int compareTo(Entry other) {
+            return Integer.compare(key, other.key);
+        }
+    }
+
+    static final class PriorityQueueQueue implements Queue {
+        final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+        public Object insert(int key) {
+            Entry entry = new Entry(key);
+            queue.add(entry);
+            return entry;
+        }
+
+        public Object findMin() {
+            return queue.peek();
+        }
+
+        public void deleteMin() {
+            queue.poll();
+        }
+
+        public void decreaseKey(Object x, int diff) {
+            Entry entry = (Entry) x;
+            queue.remove(entry);
+            entry.key -= diff;
+            queue.add(entry);
+        }
+
+        public void delete(Object x) {
+            queue.remove(x);
+        }
+
+        public void meld(Queue other) {
+            PriorityQueue<Entry> queue2 = ((PriorityQueueQueue) other).queue;
+            queue.addAll(queue2);
+            queue2.clear();
+        }
+
+        public int key(Object x) {
+            return ((Entry) x).key;
+        }
+    }
+}
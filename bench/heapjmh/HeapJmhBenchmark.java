@@ -0,0 +1,244 @@
+package heapjmh;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * HeapJmhBenchmark
+ *
+ * JMH benchmarks of insert, findMin, deleteMin, decreaseKey, delete and meld
+ * on a heap of n items, for the four Heap configurations (named as in
+ * HeapFactory.Engine: FIBONACCI, BINOMIAL, BINOMIAL_LAZY and
+ * BINOMIAL_WITH_CUTS) and java.util.PriorityQueue as a baseline. Any other
+ * HeapFactory engine that takes arbitrary keys can be given with -p engine=.
+ *
+ * The heap is built once per trial, and its minimum deleted once so that
+ * lazy heaps are consolidated. Each iteration times BATCH calls of one
+ * operation, and is then undone: deleted keys are inserted again and
+ * inserted or melded items deleted, so every iteration starts from n items.
+ * The score is in microseconds per BATCH calls, which is nanoseconds per
+ * call. Building and undoing run on another thread, so that the GC
+ * profiler's allocation per operation only counts the timed calls.
+ *
+ * PriorityQueue has no handles: decreaseKey and delete are remove(Object)
+ * and add, which are linear in n. At 10M items and more a single iteration
+ * of them takes hours, so without -p or a benchmark name on the command line
+ * main runs them only at LINEAR_SIZES; everything else runs at every size.
+ * The queues come from HeapJmhQueues, see Queue for why.
+ *
+ * Build and run (main adds the GC profiler to the usual JMH options):
+ *   mvn -Pjmh package
+ *   java -jar target/benchmarks.jar -p n=1000,100000
+ * The 10M and 100M sizes need a large heap, see @Fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 200, batchSize = HeapJmhBenchmark.BATCH)
+@Measurement(iterations = 100, batchSize = HeapJmhBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class HeapJmhBenchmark {
+
+    static final int BATCH = 1000;
+    static final int MELD_SIZE = 8;
+    static final String LINEAR_SIZES = "1000,100000"; // default n for PriorityQueue's linear operations
+
+    @Param({"FIBONACCI", "BINOMIAL", "BINOMIAL_LAZY", "BINOMIAL_WITH_CUTS", "PRIORITY_QUEUE"})
+    public String engine;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int n;
+
+    private Queue queue;
+    private Random random;
+    private int[] smallest; // the BATCH smallest keys, which deleteMin removes
+    private int[] insertKeys;
+    private Object[] inserted;
+    private Object[] targets; // BATCH distinct items for decreaseKey and delete
+    private int[] targetKeys;
+    private Queue[] others; // BATCH heaps of MELD_SIZE items for meld
+    private Object[] otherItems;
+
+    // calls made in the current iteration, to be undone
+    private int inserts;
+    private int deleteMins;
+    private int decreases;
+    private int deletes;
+    private int melds;
+
+    private Queue newQueue() {
+        try {
+            return (Queue) Class.forName("HeapJmhQueues")
+                    .getMethod("create", String.class).invoke(null, engine);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void offThread(Runnable task) throws InterruptedException {
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        if (n < BATCH) {
+            throw new IllegalArgumentException("n must be >= " + BATCH);
+        }
+        offThread(this::build);
+    }
+
+    private void build() {
+        random = new Random(n);
+        queue = newQueue();
+        int[] keys = new int[n];
+        int step = n / BATCH;
+        targets = new Object[BATCH];
+        targetKeys = new int[BATCH];
+        queue.insert(0);
+        for (int i = 0; i < n; i++) {
+            keys[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            Object x = queue.insert(keys[i]);
+            if (i % step == 0 && i / step < BATCH) {
+                targets[i / step] = x;
+                targetKeys[i / step] = keys[i];
+            }
+        }
+        queue.deleteMin();
+        Arrays.sort(keys);
+        smallest = Arrays.copyOf(keys, BATCH);
+        insertKeys = new int[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            insertKeys[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        inserted = new Object[BATCH];
+        others = new Queue[BATCH];
+        otherItems = new Object[BATCH * MELD_SIZE];
+        for (int i = 0; i < BATCH; i++) {
+            buildOther(i);
+        }
+    }
+
+    private void buildOther(int i) {
+        others[i] = newQueue();
+        for (int j = 0; j < MELD_SIZE; j++) {
+            otherItems[i * MELD_SIZE + j] = others[i].insert(random.nextInt(Integer.MAX_VALUE));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void undo() throws InterruptedException {
+        offThread(this::restore);
+    }
+
+    private void restore() {
+        for (int i = 0; i < inserts; i++) {
+            queue.delete(inserted[i]);
+        }
+        for (int i = 0; i < deleteMins; i++) {
+            queue.insert(smallest[i]);
+        }
+        for (int i = 0; i < decreases; i++) {
+            queue.delete(targets[i]);
+            targets[i] = queue.insert(targetKeys[i]);
+        }
+        for (int i = 0; i < deletes; i++) {
+            targets[i] = queue.insert(targetKeys[i]);
+        }
+        for (int i = 0; i < melds; i++) {
+            for (int j = 0; j < MELD_SIZE; j++) {
+                queue.delete(otherItems[i * MELD_SIZE + j]);
+            }
+            buildOther(i);
+        }
+        inserts = deleteMins = decreases = deletes = melds = 0;
+    }
+
+    @Benchmark
+    public Object insert() {
+        return inserted[inserts] = queue.insert(insertKeys[inserts++]);
+    }
+
+    @Benchmark
+    public Object findMin() {
+        return queue.findMin();
+    }
+
+    @Benchmark
+    public void deleteMin() {
+        queue.deleteMin();
+        deleteMins++;
+    }
+
+    @Benchmark
+    public void decreaseKey() {
+        Object x = targets[decreases++];
+        queue.decreaseKey(x, queue.key(x) / 2);
+    }
+
+    @Benchmark
+    public void delete() {
+        queue.delete(targets[deletes++]);
+    }
+
+    @Benchmark
+    public void meld() {
+        queue.meld(others[melds++]);
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        if (!options.getIncludes().isEmpty()
+                || options.getParameter("engine").hasValue() || options.getParameter("n").hasValue()) {
+            run(options, "", null, null);
+            return;
+        }
+        // The default grid, without PriorityQueue's linear operations at the large sizes
+        run(options, "", "FIBONACCI,BINOMIAL,BINOMIAL_LAZY,BINOMIAL_WITH_CUTS", null);
+        run(options, "\\.(insert|findMin|deleteMin|meld)$", "PRIORITY_QUEUE", null);
+        run(options, "\\.(decreaseKey|delete)$", "PRIORITY_QUEUE", LINEAR_SIZES);
+    }
+
+    /**
+     * Run the benchmarks of this class whose names end with methods, with the
+     * given engines and sizes when not null, on top of the command line options.
+     */
+    private static void run(CommandLineOptions options, String methods, String engines, String sizes)
+            throws RunnerException {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class);
+        if (options.getIncludes().isEmpty()) {
+            builder.include(HeapJmhBenchmark.class.getSimpleName() + methods);
+        }
+        if (engines != null) {
+            builder.param("engine", engines.split(","));
+        }
+        if (sizes != null) {
+            builder.param("n", sizes.split(","));
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,30 @@
+package heapjmh;
+
+/**
+ * Queue
+ *
+ * The operations measured by HeapJmhBenchmark, over either a heap engine or
+ * a PriorityQueue. JMH does not accept benchmarks in the default package,
+ * which cannot import the heap classes, so the implementations are in the
+ * default-package class HeapJmhQueues and the benchmark only sees this
+ * interface. Items are opaque handles returned by insert.
+ */
+public interface Queue {
+
+    Object insert(int key);
+
+    Object findMin();
+
+    void deleteMin();
+
+    void decreaseKey(Object x, int diff);
+
+    void delete(Object x);
+
+    /**
+     * Meld with other, which must come from the same engine.
+     */
+    void meld(Queue other);
+
+    int key(Object x);
+}